@@ -0,0 +1,203 @@
+import java.util.Arrays;
+
+/**
+ * A* search for a shortest path between two vertices of an unweighted graph.
+ *
+ * Vertices are expanded in order of distance from the source plus a {@link Heuristic} estimate of
+ * the distance left to the target. The estimate must never be more than the real distance and must
+ * change by at most one between neighbors (both hold for the heuristics used here); the first time
+ * the target is taken from the queue its distance is then the shortest.
+ *
+ * The open set is a binary heap of longs holding (estimate, vertex) pairs, and vertices are marked
+ * with the number of the search, so nothing is cleared between searches. Not thread safe.
+ */
+class AStarSearch {
+
+	/**
+	 * Lower bound on the distance between two vertices
+	 */
+	interface Heuristic {
+
+		/**
+		 * @param vertex the id of a vertex
+		 * @param target the id of the target
+		 * @return a lower bound on the number of edges between them
+		 */
+		int estimate(int vertex, int target);
+	}
+
+	// Initial capacity of the heap
+	private final int INITIAL_HEAP = 64;
+
+	private Graph<String> graph;
+	private Heuristic heuristic;
+
+	// distance from the source and predecessor toward the source, valid where stamp is the current epoch
+	private int[] dist;
+	private int[] pred;
+	private int[] stamp;
+	// stamp of the vertices already expanded
+	private int[] closed;
+	private int epoch;
+	private int[] neighbors;
+
+	private long[] heap;
+	private int heapSize;
+
+	private int source;
+	private int target;
+	// number of vertices expanded by the last search
+	private int expandedCount;
+
+	/**
+	 * Constructor for the search
+	 *
+	 * @param graph the graph to search
+	 * @param heuristic the lower bound guiding the search
+	 */
+	AStarSearch(Graph<String> graph, Heuristic heuristic) {
+		this.graph = graph;
+		this.heuristic = heuristic;
+		this.heap = new long[INITIAL_HEAP];
+	}
+
+	/**
+	 * Searches for a shortest path between two vertices
+	 *
+	 * @param source the id of the first vertex
+	 * @param target the id of the second vertex
+	 * @return the number of edges on a shortest path, or -1 if there is no path
+	 */
+	int search(int source, int target) {
+		int vertexCount = graph.getVertexCount();
+		if ( dist == null || dist.length != vertexCount ) {
+			dist = new int[vertexCount];
+			pred = new int[vertexCount];
+			stamp = new int[vertexCount];
+			closed = new int[vertexCount];
+			neighbors = new int[vertexCount];
+			epoch = 0;
+		}
+		if ( ++epoch == Integer.MAX_VALUE ) {
+			Arrays.fill(stamp, 0);
+			Arrays.fill(closed, 0);
+			epoch = 1;
+		}
+
+		this.source = source;
+		this.target = target;
+		expandedCount = 0;
+		heapSize = 0;
+		stamp[source] = epoch;
+		dist[source] = 0;
+		pred[source] = -1;
+		push(heuristic.estimate(source, target), source);
+
+		while ( heapSize > 0 ) {
+			int u = pop();
+			if ( closed[u] == epoch ) {
+				continue;
+			}
+			closed[u] = epoch;
+			expandedCount++;
+			if ( u == target ) {
+				return dist[u];
+			}
+
+			int next = dist[u] + 1;
+			int degree = graph.getNeighborIds(u, neighbors);
+			for ( int i = 0; i < degree; i++ ) {
+				int v = neighbors[i];
+				if ( stamp[v] != epoch || next < dist[v] ) {
+					stamp[v] = epoch;
+					dist[v] = next;
+					pred[v] = u;
+					push(next + heuristic.estimate(v, target), v);
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the vertices of the path found by the last successful {@link #search(int, int)}
+	 *
+	 * @return the ids of the vertices, from the source to the target
+	 */
+	int[] getPath() {
+		int[] path = new int[dist[target] + 1];
+		getPath(path);
+		return path;
+	}
+
+	/**
+	 * Writes the vertices of the path found by the last successful {@link #search(int, int)} into a buffer
+	 *
+	 * @param buffer receives the ids of the vertices, from the source to the target, at least distance + 1 long
+	 * @return the number of ids written
+	 */
+	int getPath(int[] buffer) {
+		int length = dist[target] + 1;
+		int v = target;
+		for ( int i = length - 1; i >= 0; i-- ) {
+			buffer[i] = v;
+			v = pred[v];
+		}
+		return length;
+	}
+
+	/**
+	 * Gets the number of vertices expanded by the last search
+	 *
+	 * @return the number of expanded vertices
+	 */
+	int getExpandedCount() {
+		return expandedCount;
+	}
+
+	/**
+	 * Adds a vertex to the heap
+	 *
+	 * @param priority the estimated length of a path through the vertex
+	 * @param vertex the id of the vertex
+	 */
+	private void push(int priority, int vertex) {
+		if ( heapSize == heap.length ) {
+			heap = Arrays.copyOf(heap, heap.length * 2);
+		}
+		long entry = ((long) priority << 32) | vertex;
+		int i = heapSize++;
+		while ( i > 0 && heap[(i - 1) >>> 1] > entry ) {
+			heap[i] = heap[(i - 1) >>> 1];
+			i = (i - 1) >>> 1;
+		}
+		heap[i] = entry;
+	}
+
+	/**
+	 * Removes the vertex with the smallest priority from the heap
+	 *
+	 * @return the id of the vertex
+	 */
+	private int pop() {
+		long top = heap[0];
+		long last = heap[--heapSize];
+		int i = 0;
+		while ( true ) {
+			int child = 2 * i + 1;
+			if ( child >= heapSize ) {
+				break;
+			}
+			if ( child + 1 < heapSize && heap[child + 1] < heap[child] ) {
+				child++;
+			}
+			if ( heap[child] >= last ) {
+				break;
+			}
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = last;
+		return (int) top;
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * Storage for the edges of a {@link Graph}.
+ *
+ * Vertices are addressed by their id in the graph, which is dense (0 to vertexCount - 1).
+ * Edges are undirected, so every method that takes two ids treats them symmetrically.
+ * The graph is responsible for checking that ids are valid and distinct.
+ */
+interface AdjacencyStore {
+
+    /**
+     * Makes room for a new vertex, which has no edges
+     *
+     * @param id the id of the new vertex (always the current vertex count)
+     */
+    void addVertex(int id);
+
+    /**
+     * Removes a vertex and its edges; every vertex with a greater id moves down by one id
+     *
+     * @param id the id of the removed vertex
+     * @param vertexCount the number of vertices before the removal
+     */
+    void removeVertex(int id, int vertexCount);
+
+    /**
+     * Adds an undirected edge between two vertices, if it does not already exist
+     *
+     * @param vertex1 the id of the first vertex
+     * @param vertex2 the id of the second vertex
+     */
+    void addEdge(int vertex1, int vertex2);
+
+    /**
+     * Removes the undirected edge between two vertices, if it exists
+     *
+     * @param vertex1 the id of the first vertex
+     * @param vertex2 the id of the second vertex
+     */
+    void removeEdge(int vertex1, int vertex2);
+
+    /**
+     * Checks whether there is an edge between two vertices
+     *
+     * @param vertex1 the id of the first vertex
+     * @param vertex2 the id of the second vertex
+     * @return true if the vertices share an edge
+     */
+    boolean hasEdge(int vertex1, int vertex2);
+
+    /**
+     * Gets the ids of all the neighbors of a vertex
+     *
+     * @param id the id of the vertex
+     * @param vertexCount the number of vertices in the graph
+     * @return the ids of the neighbors, in increasing order
+     */
+    int[] getNeighbors(int id, int vertexCount);
+
+    /**
+     * Copies the ids of all the neighbors of a vertex into a buffer, without allocating
+     *
+     * @param id the id of the vertex
+     * @param buffer receives the ids of the neighbors in increasing order, must have room for all of them
+     * @param vertexCount the number of vertices in the graph
+     * @return the number of neighbors
+     */
+    int getNeighbors(int id, int[] buffer, int vertexCount);
+
+    /**
+     * Counts the vertices that are neighbors of both vertices
+     *
+     * @param vertex1 the id of the first vertex
+     * @param vertex2 the id of the second vertex
+     * @param vertexCount the number of vertices in the graph
+     * @return the number of common neighbors
+     */
+    int countCommonNeighbors(int vertex1, int vertex2, int vertexCount);
+}
@@ -0,0 +1,211 @@
+import java.util.Arrays;
+
+/**
+ * Breadth first search between two vertices that grows a search tree from each end and stops
+ * as soon as the trees touch.
+ *
+ * Each step expands one whole level of whichever tree has the smaller frontier. When a level
+ * reaches a vertex of the other tree, the shortest connection found on that level is a shortest
+ * path. For a word ladder this explores two small balls around the ends instead of every word
+ * up to the distance of the target.
+ *
+ * Visited marks are stamped with the number of the search, so nothing is cleared between searches.
+ */
+class BidirectionalSearch {
+
+	private Graph<String> graph;
+	private Side forward;
+	private Side backward;
+	// number of the current search, a vertex is visited by a side if its stamp equals this
+	private int epoch;
+
+	// ends of the edge where the trees met: meetForward is in the forward tree, meetBackward in the backward tree
+	private int meetForward;
+	private int meetBackward;
+	// number of vertices visited by the last search
+	private int visitedCount;
+	// reusable buffer for the neighbors of the vertex being expanded
+	private int[] neighbors;
+
+	/**
+	 * Constructor for the search
+	 *
+	 * @param graph the graph to search, or null until {@link #setGraph(Graph)}
+	 */
+	BidirectionalSearch(Graph<String> graph) {
+		this.graph = graph;
+		this.forward = new Side();
+		this.backward = new Side();
+	}
+
+	/**
+	 * Points the search at another graph. Its scratch space is kept if the graph has as many vertices,
+	 * and allocated again by the next search otherwise.
+	 *
+	 * @param graph the graph to search, or null to let go of the graph between searches
+	 */
+	void setGraph(Graph<String> graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Searches for a shortest path between two vertices
+	 *
+	 * @param source the id of the first vertex
+	 * @param target the id of the second vertex
+	 * @return the number of edges on a shortest path, or -1 if there is no path
+	 */
+	int search(int source, int target) {
+		int vertexCount = graph.getVertexCount();
+		if ( forward.stamp == null || forward.stamp.length != vertexCount ) {
+			forward.allocate(vertexCount);
+			backward.allocate(vertexCount);
+			neighbors = new int[vertexCount];
+			epoch = 0;
+		}
+		if ( ++epoch == Integer.MAX_VALUE ) {
+			Arrays.fill(forward.stamp, 0);
+			Arrays.fill(backward.stamp, 0);
+			epoch = 1;
+		}
+
+		forward.start(source);
+		backward.start(target);
+		visitedCount = source == target ? 1 : 2;
+		if ( source == target ) {
+			meetForward = source;
+			meetBackward = -1;
+			return 0;
+		}
+
+		while ( forward.head < forward.tail && backward.head < backward.tail ) {
+			int best;
+			if ( forward.tail - forward.head <= backward.tail - backward.head ) {
+				best = expandLevel(forward, backward);
+			}
+			else {
+				best = expandLevel(backward, forward);
+			}
+			if ( best != -1 ) {
+				return best;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the vertices of the path found by the last successful {@link #search(int, int)}
+	 *
+	 * @return the ids of the vertices, from the source to the target
+	 */
+	int[] getPath() {
+		int length = 0;
+		for ( int v = meetBackward; v != -1; v = backward.pred[v] ) {
+			length++;
+		}
+		for ( int v = meetForward; v != -1; v = forward.pred[v] ) {
+			length++;
+		}
+		int[] path = new int[length];
+		getPath(path);
+		return path;
+	}
+
+	/**
+	 * Writes the vertices of the path found by the last successful {@link #search(int, int)} into a buffer
+	 *
+	 * @param buffer receives the ids of the vertices, from the source to the target, at least distance + 1 long
+	 * @return the number of ids written
+	 */
+	int getPath(int[] buffer) {
+		int forwardLength = 0;
+		for ( int v = meetForward; v != -1; v = forward.pred[v] ) {
+			forwardLength++;
+		}
+
+		int i = forwardLength;
+		for ( int v = meetForward; v != -1; v = forward.pred[v] ) {
+			buffer[--i] = v;
+		}
+		i = forwardLength;
+		for ( int v = meetBackward; v != -1; v = backward.pred[v] ) {
+			buffer[i++] = v;
+		}
+		return i;
+	}
+
+	/**
+	 * Gets the number of vertices visited by the last search, from both ends
+	 *
+	 * @return the number of visited vertices
+	 */
+	int getVisitedCount() {
+		return visitedCount;
+	}
+
+	/**
+	 * Expands every vertex on the current level of one side
+	 *
+	 * @param side the side to expand
+	 * @param other the other side
+	 * @return the length of the shortest path through an edge from this level to the other side, or -1 if none
+	 */
+	private int expandLevel(Side side, Side other) {
+		int levelEnd = side.tail;
+		int best = -1;
+		while ( side.head < levelEnd ) {
+			int u = side.queue[side.head++];
+			int degree = graph.getNeighborIds(u, neighbors);
+			for ( int i = 0; i < degree; i++ ) {
+				int v = neighbors[i];
+				if ( other.stamp[v] == epoch ) {
+					int length = side.dist[u] + 1 + other.dist[v];
+					if ( best == -1 || length < best ) {
+						best = length;
+						meetForward = side == forward ? u : v;
+						meetBackward = side == forward ? v : u;
+					}
+				}
+				if ( side.stamp[v] != epoch ) {
+					side.visit(v, side.dist[u] + 1, u);
+					visitedCount++;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Search tree grown from one end
+	 */
+	private class Side {
+		// distance from the end and predecessor toward the end, valid where stamp is the current epoch
+		int[] dist;
+		int[] pred;
+		int[] stamp;
+		// vertices in the order they were reached; those from head to tail are the frontier
+		int[] queue;
+		int head;
+		int tail;
+
+		void allocate(int vertexCount) {
+			dist = new int[vertexCount];
+			pred = new int[vertexCount];
+			stamp = new int[vertexCount];
+			queue = new int[vertexCount];
+		}
+
+		void start(int end) {
+			head = 0;
+			tail = 0;
+			visit(end, 0, -1);
+		}
+
+		void visit(int vertex, int distance, int predecessor) {
+			stamp[vertex] = epoch;
+			dist[vertex] = distance;
+			pred[vertex] = predecessor;
+			queue[tail++] = vertex;
+		}
+	}
+}
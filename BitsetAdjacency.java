@@ -0,0 +1,205 @@
+import java.util.Arrays;
+
+/**
+ * Bit-packed adjacency matrix storage for a {@link Graph}.
+ *
+ * Each row of the matrix is a long[] where bit (id % 64) of word (id / 64) is set if there is
+ * an edge to vertex id. This takes 1/8 the memory of {@link MatrixAdjacency}, and whole rows
+ * can be combined 64 vertices at a time, which {@link #expandFrontier(long[], long[], long[])}
+ * and {@link #countCommonNeighbors(int, int, int)} rely on. The searches of
+ * {@link BreadthFirstSearch#distances(int, int[])} expand their frontier this way.
+ */
+class BitsetAdjacency implements AdjacencyStore {
+
+	// scale factor for resizing arrays
+	private final double SCALE_FACTOR = 1.25;
+	// Initial size of arrays
+	private final int INITIAL_SIZE = 100;
+
+	/*
+	 * rows[id] is the bit-packed row of the adjacency matrix for the vertex
+	 */
+	private long[][] rows;
+	// number of longs in every row
+	private int words;
+
+	/**
+	 * Constructor for the matrix, creates an empty matrix of the initial size
+	 */
+	BitsetAdjacency() {
+		words = wordsFor(INITIAL_SIZE);
+		rows = new long[INITIAL_SIZE][words];
+	}
+
+	/**
+	 * Gets the number of longs needed to hold one bit per vertex
+	 *
+	 * @param vertexCount the number of vertices
+	 * @return the number of longs
+	 */
+	static int wordsFor(int vertexCount) {
+		return (vertexCount + 63) >>> 6;
+	}
+
+	@Override
+	public void addVertex(int id) {
+		if ( id + 1 >= rows.length ) {
+			resize();
+		}
+	}
+
+	/**
+	 * Removes a row and column from the matrix, moving every later row up and every later
+	 * column (bit) down by one so the matrix stays aligned with the ids
+	 */
+	@Override
+	public void removeVertex(int id, int vertexCount) {
+		for ( int row = 0; row < vertexCount; row++ ) {
+			removeBit(rows[row], id);
+		}
+
+		long[] removedRow = rows[id];
+		System.arraycopy(rows, id + 1, rows, id, vertexCount - id - 1);
+		Arrays.fill(removedRow, 0L);
+		rows[vertexCount - 1] = removedRow;
+	}
+
+	@Override
+	public void addEdge(int vertex1, int vertex2) {
+		rows[vertex1][vertex2 >>> 6] |= 1L << vertex2;
+		rows[vertex2][vertex1 >>> 6] |= 1L << vertex1;
+	}
+
+	@Override
+	public void removeEdge(int vertex1, int vertex2) {
+		rows[vertex1][vertex2 >>> 6] &= ~(1L << vertex2);
+		rows[vertex2][vertex1 >>> 6] &= ~(1L << vertex1);
+	}
+
+	@Override
+	public boolean hasEdge(int vertex1, int vertex2) {
+		return (rows[vertex1][vertex2 >>> 6] & (1L << vertex2)) != 0;
+	}
+
+	/**
+	 * Skips over empty words, so this costs O(V / 64 + degree)
+	 */
+	@Override
+	public int[] getNeighbors(int id, int vertexCount) {
+		long[] row = rows[id];
+		int used = wordsFor(vertexCount);
+		int degree = 0;
+		for ( int w = 0; w < used; w++ ) {
+			degree += Long.bitCount(row[w]);
+		}
+
+		int[] neighbors = new int[degree];
+		getNeighbors(id, neighbors, vertexCount);
+		return neighbors;
+	}
+
+	@Override
+	public int getNeighbors(int id, int[] buffer, int vertexCount) {
+		long[] row = rows[id];
+		int used = wordsFor(vertexCount);
+		int next = 0;
+		for ( int w = 0; w < used; w++ ) {
+			long word = row[w];
+			while ( word != 0 ) {
+				buffer[next++] = (w << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+		return next;
+	}
+
+	@Override
+	public int countCommonNeighbors(int vertex1, int vertex2, int vertexCount) {
+		long[] row1 = rows[vertex1];
+		long[] row2 = rows[vertex2];
+		int used = wordsFor(vertexCount);
+		int common = 0;
+		for ( int w = 0; w < used; w++ ) {
+			common += Long.bitCount(row1[w] & row2[w]);
+		}
+		return common;
+	}
+
+	/**
+	 * ORs the row of a vertex into a bitset, adding all of its neighbors
+	 *
+	 * @param id the id of the vertex
+	 * @param bits bitset of at least {@link #wordsFor(int)} longs, changed in place
+	 */
+	void unionRow(int id, long[] bits) {
+		long[] row = rows[id];
+		for ( int w = 0; w < bits.length; w++ ) {
+			bits[w] |= row[w];
+		}
+	}
+
+	/**
+	 * One level of a breadth first search: sets next to every unvisited neighbor of
+	 * the vertices in the frontier, then marks them as visited
+	 *
+	 * @param frontier bitset of the vertices found at the current level
+	 * @param visited bitset of every vertex found so far, changed in place
+	 * @param next bitset that receives the vertices of the next level, changed in place
+	 * @return true if the next level has any vertices
+	 */
+	boolean expandFrontier(long[] frontier, long[] visited, long[] next) {
+		Arrays.fill(next, 0L);
+		for ( int w = 0; w < frontier.length; w++ ) {
+			long word = frontier[w];
+			while ( word != 0 ) {
+				unionRow((w << 6) + Long.numberOfTrailingZeros(word), next);
+				word &= word - 1;
+			}
+		}
+
+		boolean found = false;
+		for ( int w = 0; w < next.length; w++ ) {
+			next[w] &= ~visited[w];
+			visited[w] |= next[w];
+			found |= next[w] != 0;
+		}
+		return found;
+	}
+
+	/**
+	 * Removes one bit from a row, moving every higher bit down by one
+	 *
+	 * @param row the row to change
+	 * @param bit the bit to remove
+	 */
+	private void removeBit(long[] row, int bit) {
+		int w = bit >>> 6;
+		// bits below the removed one stay where they are (shift distances are taken mod 64)
+		long lowMask = (1L << bit) - 1;
+
+		row[w] = (row[w] & lowMask) | ((row[w] >>> 1) & ~lowMask);
+		for ( int i = w; i < words - 1; i++ ) {
+			row[i] |= row[i + 1] << 63;
+			row[i + 1] >>>= 1;
+		}
+	}
+
+    /**
+     * Resizes the matrix, copying each old row into the start of the new, longer row
+     */
+    private void resize() {
+    	int newSize = (int) (rows.length * SCALE_FACTOR);
+    	int newWords = wordsFor(newSize);
+    	long[][] newRows = new long[newSize][];
+
+    	for ( int i = 0; i < rows.length; i++ ) {
+    		newRows[i] = new long[newWords];
+    		System.arraycopy(rows[i], 0, newRows[i], 0, words);
+    	}
+    	for ( int i = rows.length; i < newSize; i++ ) {
+    		newRows[i] = new long[newWords];
+    	}
+    	rows = newRows;
+    	words = newWords;
+    }
+}
@@ -0,0 +1,95 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Runs the {@link GraphTest} cases against a graph that stores its edges in a bit-packed matrix,
+ * and tests the row primitives of {@link BitsetAdjacency} and the searches built on them
+ */
+public class BitsetGraphTest extends GraphTest {
+
+	@Override
+	protected GraphADT<String> createGraph() {
+		return new Graph<>(Graph.Storage.BITSET);
+	}
+
+	@Test
+	public final void expandFrontierVisitsOneLevel() {
+		// path 0 - 1 - 70 - 130, plus 0 - 2
+		BitsetAdjacency matrix = new BitsetAdjacency();
+		for (int id = 0; id < 150; id++)
+			matrix.addVertex(id);
+		matrix.addEdge(0, 1);
+		matrix.addEdge(0, 2);
+		matrix.addEdge(1, 70);
+		matrix.addEdge(70, 130);
+		
+		int words = BitsetAdjacency.wordsFor(150);
+		long[] frontier = new long[words];
+		long[] visited = new long[words];
+		long[] next = new long[words];
+		frontier[0] = 1L;
+		visited[0] = 1L;
+		
+		assertEquals("second level exists", true, matrix.expandFrontier(frontier, visited, next));
+		assertArrayEquals("second level", new long[] {0b110L, 0L, 0L}, next);
+		
+		assertEquals("third level exists", true, matrix.expandFrontier(next, visited, frontier));
+		assertArrayEquals("third level", new long[] {0L, 1L << 6, 0L}, frontier);
+		
+		assertEquals("fourth level exists", true, matrix.expandFrontier(frontier, visited, next));
+		assertArrayEquals("fourth level", new long[] {0L, 0L, 1L << 2}, next);
+		
+		assertEquals("fifth level exists", false, matrix.expandFrontier(next, visited, frontier));
+	}
+
+	@Test
+	public final void unionRows() {
+		BitsetAdjacency matrix = new BitsetAdjacency();
+		for (int id = 0; id < 10; id++)
+			matrix.addVertex(id);
+		matrix.addEdge(0, 2);
+		matrix.addEdge(0, 3);
+		matrix.addEdge(1, 3);
+		matrix.addEdge(1, 4);
+		
+		long[] bits = new long[BitsetAdjacency.wordsFor(10)];
+		matrix.unionRow(0, bits);
+		assertArrayEquals("neighbors of 0", new long[] {0b1100L}, bits);
+		
+		matrix.unionRow(1, bits);
+		assertArrayEquals("neighbors of 0 or 1", new long[] {0b11100L}, bits);
+	}
+
+	/**
+	 * The level at a time search of a bitset graph should find the distances of the queue based search,
+	 * also once a removed vertex has left its id empty
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void bitsetDistancesMatchSearch() throws IOException {
+		GraphProcessor processor = new GraphProcessor(Graph.Storage.BITSET, true);
+		processor.populateGraph("file.txt");
+		Graph<String> graph = processor.getGraph();
+		graph.removeVertex("RAVINE");
+		
+		int vertexCount = graph.getVertexCount();
+		BreadthFirstSearch search = new BreadthFirstSearch(graph);
+		int[] expected = new int[vertexCount];
+		int[] actual = new int[vertexCount];
+		int[] pred = new int[vertexCount];
+		for (int src = 0; src < vertexCount; src += 7) {
+			if (graph.getVertex(src) == null)
+				continue;
+			Arrays.fill(expected, -1);
+			Arrays.fill(actual, -1);
+			int reached = search.run(src, expected, pred);
+			assertEquals("reached from " + src, reached, search.distances(src, actual));
+			assertArrayEquals("distances from " + src, expected, actual);
+		}
+	}
+}
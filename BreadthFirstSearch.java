@@ -0,0 +1,135 @@
+import java.util.Arrays;
+
+/**
+ * Breadth first search of a graph, working entirely on vertex ids.
+ *
+ * All the scratch space is allocated once per graph size and reused by every search:
+ *  - the queue is an int array of one slot per vertex; each vertex is queued at most once,
+ *    so it never needs to wrap around,
+ *  - visited marks are stamped with the number of the search, so they never need clearing,
+ *  - neighbors are copied into a reusable buffer instead of a new collection.
+ * A search therefore allocates nothing, which keeps the all-pairs precomputation free of garbage.
+ *
+ * An instance is not thread safe; give each thread its own.
+ */
+class BreadthFirstSearch {
+
+	private Graph<String> graph;
+	private int[] queue;
+	private int[] stamp;
+	private int[] neighbors;
+	// number of the current search, a vertex is visited if its stamp equals this
+	private int epoch;
+
+	// edges of a graph stored as bitsets, null for any other storage
+	private BitsetAdjacency bitsetEdges;
+	// bitsets of the frontier, the next level and the visited vertices of distances(), only with bitset edges
+	private long[] frontier;
+	private long[] next;
+	private long[] visited;
+	// predecessors written and ignored by distances(), only without bitset edges
+	private int[] scratchPred;
+
+	/**
+	 * Constructor for the search
+	 *
+	 * @param graph the graph to search, which must not change while the search is used
+	 */
+	BreadthFirstSearch(Graph<String> graph) {
+		this.graph = graph;
+		int vertexCount = graph.getVertexCount();
+		this.queue = new int[vertexCount];
+		this.stamp = new int[vertexCount];
+		this.neighbors = new int[vertexCount];
+		this.bitsetEdges = graph.getBitsetEdges();
+		if ( bitsetEdges != null ) {
+			int words = BitsetAdjacency.wordsFor(vertexCount);
+			this.frontier = new long[words];
+			this.next = new long[words];
+			this.visited = new long[words];
+		}
+		else {
+			this.scratchPred = new int[vertexCount];
+		}
+	}
+
+	/**
+	 * Searches from a source, recording the distance and predecessor of every reachable vertex.
+	 * Entries of vertices that can not be reached are left unchanged.
+	 *
+	 * @param src the id of the source
+	 * @param dist receives the number of edges from the source to each vertex
+	 * @param pred receives the predecessor of each vertex on its shortest path from the source, -1 for the source
+	 * @return the number of vertices reached, including the source
+	 */
+	int run(int src, int[] dist, int[] pred) {
+		if ( ++epoch == Integer.MAX_VALUE ) {
+			Arrays.fill(stamp, 0);
+			epoch = 1;
+		}
+
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = src;
+		stamp[src] = epoch;
+		dist[src] = 0;
+		pred[src] = -1;
+
+		while ( head < tail ) {
+			int u = queue[head++];
+			int next = dist[u] + 1;
+			int degree = graph.getNeighborIds(u, neighbors);
+			for ( int i = 0; i < degree; i++ ) {
+				int v = neighbors[i];
+				if ( stamp[v] != epoch ) {
+					stamp[v] = epoch;
+					dist[v] = next; //sets distance to predecessor distance + 1
+					pred[v] = u; //sets predecessor
+					queue[tail++] = v;
+				}
+			}
+		}
+		return tail;
+	}
+
+	/**
+	 * Searches from a source, recording only the distance of every reachable vertex. Entries of vertices
+	 * that can not be reached are left unchanged.
+	 *
+	 * On a graph stored as bitsets the search goes a level at a time: the next level is the union of the
+	 * rows of the frontier, less the visited vertices, 64 vertices per operation. Otherwise it is {@link #run}.
+	 *
+	 * @param src the id of the source
+	 * @param dist receives the number of edges from the source to each vertex
+	 * @return the number of vertices reached, including the source
+	 */
+	int distances(int src, int[] dist) {
+		if ( bitsetEdges == null ) {
+			return run(src, dist, scratchPred);
+		}
+
+		Arrays.fill(frontier, 0L);
+		Arrays.fill(visited, 0L);
+		frontier[src >>> 6] = 1L << src;
+		visited[src >>> 6] = 1L << src;
+		dist[src] = 0;
+		int reached = 1;
+
+		long[] level = frontier;
+		long[] nextLevel = next;
+		for ( int d = 1; bitsetEdges.expandFrontier(level, visited, nextLevel); d++ ) {
+			for ( int w = 0; w < nextLevel.length; w++ ) {
+				long word = nextLevel[w];
+				while ( word != 0 ) {
+					dist[(w << 6) + Long.numberOfTrailingZeros(word)] = d;
+					reached++;
+					word &= word - 1;
+				}
+			}
+			long[] swap = level;
+			level = nextLevel;
+			nextLevel = swap;
+		}
+		return reached;
+	}
+}
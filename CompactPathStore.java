@@ -0,0 +1,157 @@
+/**
+ * Table of the shortest distance between every pair of vertices, stored in as few bytes as possible.
+ *
+ * Word ladders are short, so a row of distances normally fits in one byte per vertex. A row with a
+ * distance over 254 is stored as shorts instead, and one over 65534 as ints, so long paths still work
+ * and only the rows that need it pay for it. Since the graph is undirected, the table can also keep
+ * only the upper triangle (row i holds the columns after i), halving it again.
+ *
+ * No predecessors are stored: the next step of a shortest path is any neighbor one step closer to the
+ * target, see {@link #nextStep(Graph, int, int, int[])}. Compared with int distance and predecessor tables
+ * this needs 8 times less memory, or 16 times less with only the upper triangle.
+ */
+class CompactPathStore {
+
+	// largest distance that fits a byte or short row, values are stored as distance + 1 so that 0 means no path
+	private static final int BYTE_LIMIT = 0xff - 1;
+	private static final int SHORT_LIMIT = 0xffff - 1;
+
+	private int vertexCount;
+	private boolean upperTriangleOnly;
+
+	/*
+	 * row i is in exactly one of these arrays, the narrowest its largest distance fits in
+	 */
+	private byte[][] byteRows;
+	private short[][] shortRows;
+	private int[][] intRows;
+
+	/**
+	 * Constructor for the store, with every distance unknown
+	 *
+	 * @param vertexCount the number of vertices in the graph
+	 * @param upperTriangleOnly true to keep each distance once, in the row of the smaller id
+	 */
+	CompactPathStore(int vertexCount, boolean upperTriangleOnly) {
+		this.vertexCount = vertexCount;
+		this.upperTriangleOnly = upperTriangleOnly;
+		this.byteRows = new byte[vertexCount][];
+		this.shortRows = new short[vertexCount][];
+		this.intRows = new int[vertexCount][];
+	}
+
+	/**
+	 * Stores the distances from one vertex. Rows of different vertices can be set from different threads.
+	 *
+	 * @param src the id of the vertex
+	 * @param dist the distance from src to each vertex, -1 if there is no path
+	 */
+	void setRow(int src, int[] dist) {
+		int first = upperTriangleOnly ? src + 1 : 0;
+		int length = vertexCount - first;
+		int max = 0;
+		for ( int i = first; i < vertexCount; i++ ) {
+			max = Math.max(max, dist[i]);
+		}
+
+		if ( max <= BYTE_LIMIT ) {
+			byte[] row = new byte[length];
+			for ( int i = 0; i < length; i++ ) {
+				row[i] = (byte) (dist[first + i] + 1);
+			}
+			byteRows[src] = row;
+		}
+		else if ( max <= SHORT_LIMIT ) {
+			short[] row = new short[length];
+			for ( int i = 0; i < length; i++ ) {
+				row[i] = (short) (dist[first + i] + 1);
+			}
+			shortRows[src] = row;
+		}
+		else {
+			int[] row = new int[length];
+			System.arraycopy(dist, first, row, 0, length);
+			intRows[src] = row;
+		}
+	}
+
+	/**
+	 * Gets the shortest distance between two vertices
+	 *
+	 * @param vertex1 the id of the first vertex
+	 * @param vertex2 the id of the second vertex
+	 * @return the number of edges on a shortest path, 0 if the vertices are the same, or -1 if there is no path
+	 */
+	int distance(int vertex1, int vertex2) {
+		int row = vertex1;
+		int col = vertex2;
+		if ( upperTriangleOnly ) {
+			if ( vertex1 == vertex2 ) {
+				return 0;
+			}
+			row = Math.min(vertex1, vertex2);
+			col = Math.max(vertex1, vertex2) - row - 1;
+		}
+
+		if ( byteRows[row] != null ) {
+			return (byteRows[row][col] & 0xff) - 1;
+		}
+		else if ( shortRows[row] != null ) {
+			return (shortRows[row][col] & 0xffff) - 1;
+		}
+		return intRows[row][col];
+	}
+
+	/**
+	 * Gets the next vertex on a shortest path, the neighbor with the smallest id that is one step closer to the target
+	 *
+	 * @param graph the graph the distances were computed on
+	 * @param vertex the id of the current vertex, which must have a path to the target
+	 * @param target the id of the target
+	 * @param neighbors buffer for the neighbors of the vertex, of {@link Graph#getVertexCount()} ids
+	 * @return the id of the next vertex, or -1 if the vertex is the target
+	 */
+	int nextStep(Graph<String> graph, int vertex, int target, int[] neighbors) {
+		int remaining = distance(vertex, target) - 1;
+		if ( remaining < 0 ) {
+			return -1;
+		}
+		int degree = graph.getNeighborIds(vertex, neighbors);
+		for ( int i = 0; i < degree; i++ ) {
+			if ( distance(neighbors[i], target) == remaining ) {
+				return neighbors[i];
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the number of vertices the store has distances for
+	 *
+	 * @return the number of vertices of the graph when the store was made
+	 */
+	int getVertexCount() {
+		return vertexCount;
+	}
+
+	/**
+	 * Gets the number of bytes used by the distances
+	 *
+	 * @return the size of the stored rows in bytes
+	 */
+	long getDistanceBytes() {
+		long bytes = 0;
+		for ( int row = 0; row < vertexCount; row++ ) {
+			if ( byteRows[row] != null ) {
+				bytes += byteRows[row].length;
+			}
+			else if ( shortRows[row] != null ) {
+				bytes += 2L * shortRows[row].length;
+			}
+			else if ( intRows[row] != null ) {
+				bytes += 4L * intRows[row].length;
+			}
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,230 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Thread-safe front end of a {@link GraphProcessor} for serving queries from many threads.
+ *
+ * Queries never lock: they read an immutable snapshot of the graph and its shortest path tables,
+ * held in a volatile field. {@link #populateGraph(String)} updates a private processor, copies
+ * its graph into a new snapshot, and publishes the snapshot with one volatile write. Queries
+ * already running finish on the snapshot they started with, and later queries see the new one.
+ * Updates are serialized among themselves.
+ *
+ * A snapshot either shares the precomputed tables of the private processor, which are never
+ * changed in place once published, or answers each query with a {@link BidirectionalSearch}
+ * kept per thread, O(V) memory per thread instead of the O(V^2) tables. A thread keeps one search
+ * for the life of the processor and points it at the graph of a snapshot only while it queries it, so
+ * an idle thread keeps the scratch arrays of its search but no snapshot.
+ */
+public class ConcurrentGraphProcessor {
+
+	/*
+	 * Processor that updates are applied to, only used while holding the lock of this object
+	 */
+	private final GraphProcessor builder;
+	private final boolean precomputed;
+
+	/*
+	 * Snapshot queries are answered from, replaced as a whole by each update
+	 */
+	private volatile Snapshot current;
+
+	/*
+	 * Searches are not thread safe, so each thread gets its own, pointed at the graph of the snapshot
+	 * it queries for the length of the query
+	 */
+	private final ThreadLocal<BidirectionalSearch> searches = ThreadLocal.withInitial(() -> new BidirectionalSearch(null));
+
+	/**
+	 * Constructor for a processor that answers queries from precomputed tables
+	 */
+	public ConcurrentGraphProcessor() {
+		this(true);
+	}
+
+	/**
+	 * Constructor for this class, with a choice of how queries are answered
+	 *
+	 * @param precomputed true to precompute all the shortest paths on each update, false to
+	 * search for each query instead
+	 */
+	public ConcurrentGraphProcessor(boolean precomputed) {
+		this.precomputed = precomputed;
+		this.builder = new GraphProcessor();
+		if ( precomputed ) {
+			// an incremental update allocates new tables when words are added,
+			// so tables published in an earlier snapshot never change
+			builder.setIncrementalPrecomputation(true);
+			builder.setParallelPrecomputation(true);
+		}
+		else {
+			builder.setQueryMode(GraphProcessor.QueryMode.BIDIRECTIONAL);
+		}
+		this.current = new Snapshot(new Graph<>(Graph.Storage.SPARSE), null, null);
+	}
+
+	/**
+	 * Adds the words of a file to the graph, as {@link GraphProcessor#populateGraph(String)} does,
+	 * then publishes a snapshot of the new graph and, if precomputed, its shortest paths
+	 *
+	 * @param filepath file path to the dictionary
+	 * @return Integer the number of vertices (words) added
+	 * @throws IOException exception resulting from accessing the filepath
+	 */
+	public synchronized Integer populateGraph(String filepath) throws IOException {
+		Integer count = builder.populateGraph(filepath);
+		if ( precomputed ) {
+			builder.shortestPathPrecomputation();
+		}
+		current = new Snapshot(copyOf(builder.getGraph()), builder.getDistanceTable(), builder.getPredecessorTable());
+		return count;
+	}
+
+	/**
+	 * Gets the list of words that create the shortest path between word1 and word2, as
+	 * {@link GraphProcessor#getShortestPath(String, String)} does. Safe to call from any thread.
+	 *
+	 * @param word1 first word
+	 * @param word2 second word
+	 * @return List<String> list of the words
+	 */
+	public List<String> getShortestPath(String word1, String word2) {
+		Snapshot snapshot = current;
+		List<String> list = new ArrayList<>();
+		int id1 = snapshot.words.indexOf(word1);
+		int id2 = snapshot.words.indexOf(word2);
+		if ( id1 == -1 || id2 == -1 || word1.equals(word2) ) {
+			return list;
+		}
+
+		if ( snapshot.pred != null ) {
+			while ( id1 != -1 ) {
+				list.add(snapshot.words.lowercase(id1));
+				id1 = snapshot.pred[id2][id1];
+			}
+			return list;
+		}
+
+		// Like the precomputed tables, an unreachable word2 gives a path of only word1
+		BidirectionalSearch search = searches.get();
+		search.setGraph(snapshot.graph);
+		try {
+			if ( search.search(id1, id2) == -1 ) {
+				list.add(snapshot.words.lowercase(id1));
+				return list;
+			}
+			for ( int id : search.getPath() ) {
+				list.add(snapshot.words.lowercase(id));
+			}
+			return list;
+		}
+		finally {
+			search.setGraph(null);
+		}
+	}
+
+	/**
+	 * Gets the distance of the shortest path between word1 and word2, as
+	 * {@link GraphProcessor#getShortestDistance(String, String)} does. Safe to call from any thread.
+	 *
+	 * @param word1 first word
+	 * @param word2 second word
+	 * @return Integer distance, -1 if the words are the same, either is not in the graph, or there is no path
+	 */
+	public Integer getShortestDistance(String word1, String word2) {
+		Snapshot snapshot = current;
+		int id1 = snapshot.words.indexOf(word1);
+		int id2 = snapshot.words.indexOf(word2);
+		if ( id1 == -1 || id2 == -1 || id1 == id2 ) {
+			return -1;
+		}
+
+		if ( snapshot.dist != null ) {
+			return snapshot.dist[id1][id2];
+		}
+		BidirectionalSearch search = searches.get();
+		search.setGraph(snapshot.graph);
+		try {
+			return search.search(id1, id2);
+		}
+		finally {
+			search.setGraph(null);
+		}
+	}
+
+	/**
+	 * Gets the words adjacent to a word. Safe to call from any thread.
+	 *
+	 * @param word the word
+	 * @return List<String> the adjacent words, empty if the word is not in the graph
+	 */
+	public List<String> getNeighbors(String word) {
+		Snapshot snapshot = current;
+		List<String> list = new ArrayList<>();
+		int id = snapshot.words.indexOf(word);
+		if ( id == -1 ) {
+			return list;
+		}
+		for ( int neighbor : snapshot.graph.getNeighborIds(id) ) {
+			list.add(snapshot.words.lowercase(neighbor));
+		}
+		return list;
+	}
+
+	/**
+	 * Copies a graph, keeping the id of every vertex
+	 *
+	 * @param graph the graph, which has no freed ids
+	 * @return the copy
+	 */
+	private static Graph<String> copyOf(Graph<String> graph) {
+		Graph<String> copy = new Graph<>(Graph.Storage.SPARSE);
+		int vertexCount = graph.getVertexCount();
+		int[] neighbors = new int[vertexCount];
+		int[] edgeIds = new int[64];
+		int length = 0;
+		for ( int id = 0; id < vertexCount; id++ ) {
+			copy.addVertex(graph.getVertex(id));
+			int degree = graph.getNeighborIds(id, neighbors);
+			for ( int i = 0; i < degree; i++ ) {
+				// each edge is added once, from its greater end, whose neighbors are all in the copy
+				if ( neighbors[i] < id ) {
+					if ( length + 2 > edgeIds.length ) {
+						edgeIds = Arrays.copyOf(edgeIds, edgeIds.length * 2);
+					}
+					edgeIds[length++] = id;
+					edgeIds[length++] = neighbors[i];
+				}
+			}
+		}
+		copy.addEdges(edgeIds, length);
+		return copy;
+	}
+
+	/**
+	 * Graph and shortest path tables as of one update, never changed once published
+	 */
+	private static final class Snapshot {
+
+		private final Graph<String> graph;
+		private final WordIndex words;
+		// tables shared with the builder, or null when queries are searched
+		private final int[][] dist;
+		private final int[][] pred;
+
+		/**
+		 * @param graph the graph, which must not be changed afterwards
+		 * @param dist the distance table of the graph, or null
+		 * @param pred the predecessor table of the graph, or null
+		 */
+		Snapshot(Graph<String> graph, int[][] dist, int[][] pred) {
+			this.graph = graph;
+			this.words = new WordIndex(graph);
+			words.update();
+			this.dist = dist;
+			this.pred = pred;
+		}
+	}
+}
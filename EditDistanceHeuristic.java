@@ -0,0 +1,62 @@
+/**
+ * {@link AStarSearch.Heuristic} for word graphs: the Levenshtein edit distance between two words.
+ *
+ * Each edge of the graph is one substitution, addition or deletion (see {@link WordProcessor#isAdjacent}),
+ * so at least edit distance many edges separate two words, and the edit distance of neighbors differs by
+ * at most one. The number of differing positions alone is not a lower bound: ABCD and BCDE differ in
+ * every position but are two edges apart through BCD.
+ *
+ * The two rows of the dynamic program are reused between estimates, so no estimate allocates. Not thread safe.
+ */
+class EditDistanceHeuristic implements AStarSearch.Heuristic {
+
+	private Graph<String> graph;
+	private int[] previous = new int[16];
+	private int[] current = new int[16];
+
+	/**
+	 * Constructor for the heuristic
+	 *
+	 * @param graph the graph whose vertices are the words
+	 */
+	EditDistanceHeuristic(Graph<String> graph) {
+		this.graph = graph;
+	}
+
+	@Override
+	public int estimate(int vertex, int target) {
+		return distance(graph.getVertex(vertex), graph.getVertex(target));
+	}
+
+	/**
+	 * Computes the edit distance between two words
+	 *
+	 * @param word1 first word
+	 * @param word2 second word
+	 * @return the least number of single character substitutions, additions and deletions turning word1 into word2
+	 */
+	int distance(String word1, String word2) {
+		int length1 = word1.length();
+		int length2 = word2.length();
+		if ( current.length <= length2 ) {
+			previous = new int[length2 + 1];
+			current = new int[length2 + 1];
+		}
+
+		for ( int j = 0; j <= length2; j++ ) {
+			previous[j] = j;
+		}
+		for ( int i = 1; i <= length1; i++ ) {
+			char c = word1.charAt(i - 1);
+			current[0] = i;
+			for ( int j = 1; j <= length2; j++ ) {
+				int substitution = previous[j - 1] + (c == word2.charAt(j - 1) ? 0 : 1);
+				current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+			}
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return previous[length2];
+	}
+}
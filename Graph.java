@@ -1,4 +1,6 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 
 /**
  * Undirected and unweighted graph implementation
@@ -10,32 +12,113 @@ import java.util.ArrayList;
  */
 public class Graph<E> implements GraphADT<E> {
 
-	// scale factor for resizing arrays
-	private final double SCALE_FACTOR = 1.25;
-	// Initial size of arrays
-	private final int INITIAL_SIZE = 100;
+	/**
+	 * The ways the edges of a graph can be stored
+	 */
+	public enum Storage {
+		/** adjacency matrix, O(V^2) memory, suits small or dense graphs */
+		MATRIX,
+		/** sorted adjacency lists, O(V + E) memory, suits large sparse graphs */
+		SPARSE,
+		/** bit-packed adjacency matrix, V^2 / 8 bytes of memory, suits dense graphs */
+		BITSET
+	}
 
 
 	/*
-	 * Stores all of the vertices of the graph as Graphnodes
-	 * in the order they were added
+	 * Stores all of the vertices of the graph as Graphnodes, in id order.
+	 * The position of a vertex in this list is its id, so this doubles as
+	 * the reverse (id to vertex) table. Without stable ids that is the
+	 * order they were added; with stable ids a vertex added after a removal
+	 * takes the freed slot, so the order they were added is kept in
+	 * nextAdded and previousAdded instead
 	 */
 	private ArrayList<E> vertices;
 
 	/*
-	 * Adjacency matrix, with the index of the node in the vertices
-	 * arraylist as the index for the 2D matrix
-	 * If an edge exists between the two graphnodes, edges[indexOfNode1][indexOfNode2]
-	 * will be true
+	 * Maps each vertex to its id (its index in the vertices arraylist),
+	 * so vertices are resolved in constant time instead of by a linear scan
+	 */
+	private HashMap<E, Integer> vertexIds;
+
+	/*
+	 * Edges of the graph, addressed by the index of the node in the vertices arraylist
+	 */
+	private AdjacencyStore edges;
+
+	/*
+	 * How the edges are stored, as given to the constructor
+	 */
+	private Storage storage;
+
+	/*
+	 * Whether a removed vertex leaves its slot in the vertices arraylist empty (null) instead of
+	 * moving every later vertex down, so ids never change
+	 */
+	private boolean stableIds;
+
+	/*
+	 * Ids of the empty slots left by removed vertices, reused by the next vertices added, last freed first
 	 */
-	private boolean[][] edges;
+	private int[] freeIds;
+	private int freeCount;
+
+	/*
+	 * With stable ids, the ids of the vertices in the order they were added, as a doubly linked list
+	 * (-1 ends it), and whether a freed id has been given to a vertex, after which the order of ids
+	 * is no longer the order the vertices were added
+	 */
+	private int[] nextAdded;
+	private int[] previousAdded;
+	private int firstAdded;
+	private int lastAdded;
+	private boolean idsReused;
 
 	/**
-	 * Constructor for graph, creates initial
+	 * Constructor for graph, creates an empty graph whose edges are stored in an adjacency matrix
 	 */
 	public Graph() {
+		this(Storage.MATRIX);
+	}
+
+	/**
+	 * Constructor for graph, creates an empty graph with the given edge storage
+	 *
+	 * @param storage how the edges of the graph are stored
+	 */
+	public Graph(Storage storage) {
+		this(storage, false);
+	}
+
+	/**
+	 * Constructor for graph, creates an empty graph with the given edge storage, whose vertex ids
+	 * can be kept stable. With stable ids, removing a vertex frees its id instead of shifting the
+	 * ids of the vertices after it, and a freed id is given to a later vertex. Data indexed by id
+	 * then only goes stale for the removed vertex. Vertices are still listed in the order they were
+	 * added, which is then kept apart from the order of their ids.
+	 *
+	 * @param storage how the edges of the graph are stored
+	 * @param stableIds true to keep the ids of vertices when other vertices are removed
+	 */
+	public Graph(Storage storage, boolean stableIds) {
+		this.stableIds = stableIds;
+		this.storage = storage;
+		freeIds = new int[0];
+		nextAdded = new int[0];
+		previousAdded = new int[0];
+		firstAdded = -1;
+		lastAdded = -1;
 		vertices = new ArrayList<>();
-		edges = new boolean[INITIAL_SIZE][INITIAL_SIZE];
+		vertexIds = new HashMap<>();
+		if ( storage == Storage.SPARSE ) {
+			edges = new SparseAdjacency();
+		}
+		else if ( storage == Storage.BITSET ) {
+			edges = new BitsetAdjacency();
+		}
+		else {
+			edges = new MatrixAdjacency();
+		}
 	}
 
 	/**
@@ -51,10 +134,21 @@ public class Graph<E> implements GraphADT<E> {
     @Override
     public E addVertex(E vertex) {
     	E vertexAdded = null;
-		if ( !vertices.contains(vertex) && vertex != null ) {
-			vertices.add(vertex);
-			if ( vertices.size() >= edges.length ) {
-				resizeAM();
+		if ( vertex != null && !vertexIds.containsKey(vertex) ) {
+			if ( freeCount > 0 ) {
+				// the edges of a freed id were removed with its vertex
+				int id = freeIds[--freeCount];
+				vertexIds.put(vertex, id);
+				vertices.set(id, vertex);
+				idsReused = true;
+			}
+			else {
+				edges.addVertex(vertices.size());
+				vertexIds.put(vertex, vertices.size());
+				vertices.add(vertex);
+			}
+			if ( stableIds ) {
+				linkAdded(vertexIds.get(vertex));
 			}
 			vertexAdded = vertex;
 		}
@@ -79,13 +173,31 @@ public class Graph<E> implements GraphADT<E> {
 			return null;
 		}
 
-		if ( vertices.contains(vertex) ) {
-			for ( int row = 0; row < edges.length; row++ ) {
-				edges[vertices.indexOf(vertex)][row] = false;
-				edges[row][vertices.indexOf(vertex)] = false;
+		int id = indexOf(vertex);
+		if ( id != -1 && stableIds ) {
+			for ( int neighbor : edges.getNeighbors(id, vertices.size()) ) {
+				edges.removeEdge(id, neighbor);
+			}
+			vertices.set(id, null);
+			vertexIds.remove(vertex);
+			unlinkAdded(id);
+			if ( freeCount == freeIds.length ) {
+				freeIds = Arrays.copyOf(freeIds, Math.max(4, freeCount * 2));
 			}
+			freeIds[freeCount++] = id;
+			vertexRemoved = vertex;
+		}
+		else if ( id != -1 ) {
+			edges.removeVertex(id, vertices.size());
 
-			vertices.remove(vertex);
+			/*
+			 * Every vertex after the removed one moves down by one id
+			 */
+			vertices.remove(id);
+			vertexIds.remove(vertex);
+			for ( int i = id; i < vertices.size(); i++ ) {
+				vertexIds.put(vertices.get(i), i);
+			}
 			vertexRemoved = vertex;
 		}
 
@@ -105,12 +217,10 @@ public class Graph<E> implements GraphADT<E> {
      */
     @Override
     public boolean addEdge(E vertex1, E vertex2) {
-		if ( vertices.contains(vertex1) && vertices.contains(vertex2) && !vertex1.equals(vertex2) ) {
-			int vertex1Index = vertices.indexOf(vertex1);
-			int vertex2Index = vertices.indexOf(vertex2);
-
-			edges[vertex1Index][vertex2Index] = true;
-			edges[vertex2Index][vertex1Index] = true;
+		int vertex1Index = indexOf(vertex1);
+		int vertex2Index = indexOf(vertex2);
+		if ( vertex1Index != -1 && vertex2Index != -1 && vertex1Index != vertex2Index ) {
+			edges.addEdge(vertex1Index, vertex2Index);
 
 			return true;
 		}
@@ -131,12 +241,10 @@ public class Graph<E> implements GraphADT<E> {
     @Override
     public boolean removeEdge(E vertex1, E vertex2) {
     	//The two vertices are in the graph and thus can be removed
-		if ( vertices.contains(vertex1) && vertices.contains(vertex2) && !vertex1.equals(vertex2) ) {
-			int vertex1Index = vertices.indexOf(vertex1);
-			int vertex2Index = vertices.indexOf(vertex2);
-
-			edges[vertex1Index][vertex2Index] = false;
-			edges[vertex2Index][vertex1Index] = false;
+		int vertex1Index = indexOf(vertex1);
+		int vertex2Index = indexOf(vertex2);
+		if ( vertex1Index != -1 && vertex2Index != -1 && vertex1Index != vertex2Index ) {
+			edges.removeEdge(vertex1Index, vertex2Index);
 			return true;
 		}
 
@@ -161,7 +269,9 @@ public class Graph<E> implements GraphADT<E> {
     	/*
     	 * One or more of the vertices is not in the Graph
     	 */
-		if ( !vertices.contains(vertex1) || !vertices.contains(vertex2) ) {
+		int vertex1Index = indexOf(vertex1);
+		int vertex2Index = indexOf(vertex2);
+		if ( vertex1Index == -1 || vertex2Index == -1 ) {
 			return false;
 		}
 
@@ -169,9 +279,7 @@ public class Graph<E> implements GraphADT<E> {
     	 * Both vertices exist in the graph and the vertices
     	 * are not the same
     	 */
-		if ( edges[vertices.indexOf(vertex1)][vertices.indexOf(vertex2)]
-				&& edges[vertices.indexOf(vertex2)][vertices.indexOf(vertex1)]
-				&& !vertex1.equals(vertex2) ) {
+		if ( vertex1Index != vertex2Index && edges.hasEdge(vertex1Index, vertex2Index) ) {
 			return true;
 		}
 
@@ -192,48 +300,216 @@ public class Graph<E> implements GraphADT<E> {
         /*
          * Vertex not in the Graph
          */
-		if ( !vertices.contains(vertex) ) {
+		int id = indexOf(vertex);
+		if ( id == -1 ) {
 			return null;
 		}
 
         /*
-         * Checks if an edge exists between the given vertex and all
-         * other vertices, and if so, the other vertice that shares an edge
-         * to the given vertice is added to the neighbors arraylist
+         * Every vertex that shares an edge with the given vertex
+         * is added to the neighbors arraylist
          */
-		for ( int col = 0; col < edges.length; col++ ) {
-			if ( edges[vertices.indexOf(vertex)][col] ) {
-				neighbors.add(vertices.get((col)));
-			}
+		for ( int neighbor : edges.getNeighbors(id, vertices.size()) ) {
+			neighbors.add(vertices.get(neighbor));
 		}
 
         return neighbors;
     }
 
     /**
-     * Get all the vertices in the graph
+     * Counts the vertices that are neighbors of both vertex1 and vertex2
+     *
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     * @return the number of common neighbors, or 0 if either vertex is not in the graph
+     */
+    public int countCommonNeighbors(E vertex1, E vertex2) {
+		int vertex1Index = indexOf(vertex1);
+		int vertex2Index = indexOf(vertex2);
+		if ( vertex1Index == -1 || vertex2Index == -1 ) {
+			return 0;
+		}
+		return edges.countCommonNeighbors(vertex1Index, vertex2Index, vertices.size());
+    }
+
+    /**
+     * Get all the vertices in the graph, in the order they were added
      *
      * @return an iterable for all the vertices
      */
     @Override
     public Iterable<E> getAllVertices() {
-        return vertices;
+		if ( idsReused ) {
+			/*
+			 * A vertex given a freed id is not at the end of the vertices arraylist
+			 */
+			ArrayList<E> added = new ArrayList<>(vertexIds.size());
+			for ( int id = firstAdded; id != -1; id = nextAdded[id] ) {
+				added.add(vertices.get(id));
+			}
+			return added;
+		}
+		if ( freeCount == 0 ) {
+			return vertices;
+		}
+
+		/*
+		 * Skips the empty slots of removed vertices
+		 */
+		ArrayList<E> live = new ArrayList<>(vertexIds.size());
+		for ( E vertex : vertices ) {
+			if ( vertex != null ) {
+				live.add(vertex);
+			}
+		}
+		return live;
+    }
+
+    /**
+     * Appends an id to the list of ids in the order their vertices were added
+     *
+     * @param id the id of the vertex just added
+     */
+    private void linkAdded(int id) {
+		if ( id >= nextAdded.length ) {
+			int length = Math.max(id + 1, nextAdded.length * 2);
+			nextAdded = Arrays.copyOf(nextAdded, length);
+			previousAdded = Arrays.copyOf(previousAdded, length);
+		}
+		nextAdded[id] = -1;
+		previousAdded[id] = lastAdded;
+		if ( lastAdded == -1 ) {
+			firstAdded = id;
+		}
+		else {
+			nextAdded[lastAdded] = id;
+		}
+		lastAdded = id;
+    }
+
+    /**
+     * Takes an id out of the list of ids in the order their vertices were added
+     *
+     * @param id the id of the vertex just removed
+     */
+    private void unlinkAdded(int id) {
+		int previous = previousAdded[id];
+		int next = nextAdded[id];
+		if ( previous == -1 ) {
+			firstAdded = next;
+		}
+		else {
+			nextAdded[previous] = next;
+		}
+		if ( next == -1 ) {
+			lastAdded = previous;
+		}
+		else {
+			previousAdded[next] = previous;
+		}
+    }
+
+    /**
+     * Adds edges between pairs of vertex ids in one step, skipping the checks done by {@link #addEdge(Object, Object)}
+     *
+     * @param edgeIds pairs of distinct vertex ids, edgeIds[2i] and edgeIds[2i + 1] are the ends of edge i
+     * @param length the number of ids used in edgeIds (twice the number of edges)
+     */
+    void addEdges(int[] edgeIds, int length) {
+		for ( int i = 0; i < length; i += 2 ) {
+			edges.addEdge(edgeIds[i], edgeIds[i + 1]);
+		}
+    }
+
+    /**
+     * Gets the ids of all the neighbors of a vertex
+     *
+     * @param id the id of the vertex
+     * @return the ids of the neighbors, in increasing order
+     */
+    int[] getNeighborIds(int id) {
+		return edges.getNeighbors(id, vertices.size());
     }
 
     /**
-     * Resizes the adjacency matrix
+     * Copies the ids of all the neighbors of a vertex into a buffer, without allocating
+     *
+     * @param id the id of the vertex
+     * @param buffer receives the ids of the neighbors in increasing order, a buffer
+     * of {@link #getVertexCount()} ids always has room for all of them
+     * @return the number of neighbors
      */
-    private void resizeAM() {
-    	// new size is current size times scale factor.
-    	int newSize = (int) (edges.length * SCALE_FACTOR);
-    	boolean[][] newAM = new boolean[newSize][newSize];
+    int getNeighborIds(int id, int[] buffer) {
+		return edges.getNeighbors(id, buffer, vertices.size());
+    }
 
-    	// copy old array into new array and set
-    	for(int i = 0; i < edges.length; i++ ) {
-    		for(int j = 0; j < edges[0].length; j++) {
-    			newAM[i][j] = edges[i][j];
-    		}
-    	}
-    	edges = newAM;
+    /**
+     * Gets how the edges of the graph are stored
+     *
+     * @return the storage given to the constructor
+     */
+    Storage getStorage() {
+		return storage;
+    }
+
+    /**
+     * Checks whether vertices keep their ids when other vertices are removed
+     *
+     * @return the stableIds given to the constructor
+     */
+    boolean hasStableIds() {
+		return stableIds;
+    }
+
+    /**
+     * Gets the bit-packed edges of the graph, whose rows a search can combine 64 vertices at a time
+     *
+     * @return the edges, or null if the graph does not store them as {@link Storage#BITSET}
+     */
+    BitsetAdjacency getBitsetEdges() {
+		return edges instanceof BitsetAdjacency ? (BitsetAdjacency) edges : null;
+    }
+
+    /**
+     * Gets the vertex with an id
+     *
+     * @param id the id of the vertex, from 0 to {@link #getVertexCount()} - 1
+     * @return the vertex, or null if the id was freed by a removed vertex
+     */
+    E getVertex(int id) {
+		return vertices.get(id);
+    }
+
+    /**
+     * Gets the number of vertex ids in use, ids go from 0 to this - 1. With stable ids this includes
+     * the freed ids of removed vertices, which have no vertex and no edges.
+     *
+     * @return the number of ids
+     */
+    int getVertexCount() {
+		return vertices.size();
+    }
+
+    /**
+     * Gets the number of vertices in the graph, not counting freed ids
+     *
+     * @return the number of vertices
+     */
+    int size() {
+		return vertexIds.size();
+    }
+
+    /**
+     * Gets the id of a vertex, which is its index in the vertices arraylist
+     *
+     * @param vertex the vertex
+     * @return the id of the vertex, or -1 if the vertex is null or not in the graph
+     */
+    int indexOf(E vertex) {
+		if ( vertex == null ) {
+			return -1;
+		}
+		Integer id = vertexIds.get(vertex);
+		return id == null ? -1 : id;
     }
-}
\ No newline at end of file
+}
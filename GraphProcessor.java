@@ -1,8 +1,17 @@
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -36,21 +45,301 @@ import java.util.stream.Stream;
  */
 public class GraphProcessor {
 
+    /**
+     * The ways {@link #populateGraph(String)} can find the edges between words
+     */
+    public enum EdgeBuilder {
+        /** compares every pair of words, O(V^2) comparisons */
+        PAIRWISE,
+        /** only compares words that share a substitution pattern or deletion key, see {@link WordBucketIndex} */
+        BUCKETED,
+        /** compares the same words as BUCKETED, split across threads, see {@link ParallelEdgeBuilder} */
+        PARALLEL
+    }
+
+    /**
+     * The ways {@link #populateGraph(String)} can read the words of a file
+     */
+    public enum WordLoader {
+        /** reads lines with {@link WordProcessor#getWordStream(String)} and splits them into words on whitespace */
+        STREAM,
+        /** reads words straight from the memory-mapped file with {@link WordProcessor#readWords(String, java.util.function.Consumer)} */
+        MAPPED
+    }
+
+    /**
+     * The ways shortest path queries can be answered
+     */
+    public enum QueryMode {
+        /** looks up the tables built by {@link #shortestPathPrecomputation()}, O(V^2) memory */
+        PRECOMPUTED,
+        /** searches from the query's words when asked, O(V) memory and no precomputation */
+        ON_DEMAND,
+        /**
+         * searches from both of the query's words until the searches meet, O(V) memory and no precomputation.
+         * When there are several shortest paths, the one returned may differ from the other modes
+         */
+        BIDIRECTIONAL,
+        /**
+         * looks up distances precomputed into a {@link CompactPathStore}, 8 to 16 times smaller than the
+         * PRECOMPUTED tables. When there are several shortest paths, the one returned may differ from the other modes
+         */
+        COMPACT,
+        /**
+         * precomputes distances from a few landmark words only, O(k * V) memory, and answers queries
+         * with an A* search guided by them, see {@link LandmarkOracle}. When there are several shortest
+         * paths, the one returned may differ from the other modes
+         */
+        LANDMARK,
+        /**
+         * precomputes nothing and answers each query with an A* search guided by the edit distance
+         * between words, see {@link EditDistanceHeuristic}. When there are several shortest paths,
+         * the one returned may differ from the other modes
+         */
+        ASTAR
+    }
+
+    /**
+     * Receives the results of {@link #getShortestPaths(Collection, PathConsumer)}
+     */
+    public interface PathConsumer {
+
+        /**
+         * Receives the shortest path between two words
+         *
+         * @param word1 first word of the pair, as given
+         * @param word2 second word of the pair, as given
+         * @param path the path, as returned by {@link #getShortestPath(String, String)}
+         */
+        void accept(String word1, String word2, List<String> path);
+    }
+
+    // separates the words of a line, any run of characters up to ' ', as readWords splits the file
+    private static final Pattern WHITESPACE = Pattern.compile("[\\x00-\\x20]+");
+
     /**
      * Graph which stores the dictionary words and their associated connections
      */
     private Graph<String> graph;
-    private ArrayList<String> vertices; //stores all vertices in the graph
-    private int[][] dist; //matrix of distances between nodes
-    private int[][] pred; //predecessor matrix
-    private boolean[] visited; //keeps track of visited nodes
+    private WordIndex wordIndex; //ids and lowercase forms of the words, for queries
+    private int[][] dist; //matrix of distances between nodes, indexed by graph id
+    private int[][] pred; //predecessor matrix, indexed by graph id
+    private boolean incrementalPrecomputation; //whether the precomputation only updates the tables for new words
+    private boolean dynamic; //whether words keep their ids when other words are removed
+    private BitSet freedIds; //ids that had no word when dist and pred were last computed or updated
+    private EdgeBuilder edgeBuilder; //how edges are found when the graph is populated
+    private WordBucketIndex bucketIndex; //words already connected by the bucketed edge builder
+    private HashMap<String, HashSet<String>> removedEdges; //edges removed by removeEdge, under both of their words
+    private ForkJoinPool pool; //threads of the parallel modes given by setParallelism, null to use the common pool
+    private boolean parallelPrecomputation; //whether the precomputation runs searches on several threads
+    private WordLoader wordLoader; //how words are read when the graph is populated
+    private QueryMode queryMode; //how shortest path queries are answered
+    private LazyBreadthFirstSearch search; //search used by the on demand query mode
+    private BidirectionalSearch bidirectionalSearch; //search used by the bidirectional query mode
+    private CompactPathStore pathStore; //distances precomputed for the compact query mode
+    private boolean upperTriangleOnly; //whether the compact query mode stores each distance once
+    private String[] landmarkWords; //landmarks chosen by the user for the landmark query mode, or null
+    private int landmarkCount; //number of landmarks chosen automatically for the landmark query mode
+    private LandmarkOracle landmarkOracle; //distances precomputed for the landmark query mode
+    private AStarSearch landmarkSearch; //search guided by the landmark oracle
+    private AStarSearch editDistanceSearch; //search guided by the edit distance, for the A* query mode
+    private PathCache pathCache; //paths already found, or null
+    private SearchTreeCache treeCache; //search trees from the first words of queries, or null
+    private BreadthFirstSearch treeSearch; //search that builds the trees of the tree cache, null until needed
+    private int[] pathBuffer; //ids of the path of the last query, reused by every query
+    private int[] neighborBuffer; //neighbors of a vertex, for following paths in the compact query mode
 
     /**
-     * Constructor for this class. Initializes instances variables to set the starting state of the object
+     * Constructor for this class. Initializes instances variables to set the starting state of the object.
+     * Word graphs are sparse (a word has only a handful of neighbors), so edges are kept in adjacency lists.
      */
     public GraphProcessor() {
-        this.graph = new Graph<>();
-		this.vertices = new ArrayList<>();
+        this(Graph.Storage.SPARSE);
+    }
+
+    /**
+     * Constructor for this class, with a choice of how the graph stores its edges
+     *
+     * @param storage how the edges of the graph are stored
+     */
+    public GraphProcessor(Graph.Storage storage) {
+        this(storage, false);
+    }
+
+    /**
+     * Constructor for this class, with a choice of how the graph stores its edges and whether it is dynamic.
+     * In a dynamic processor words keep their ids when other words are removed with {@link #removeWord(String)},
+     * so the precomputed tables of {@link QueryMode#PRECOMPUTED} are updated for a removal by searching again
+     * only from the words whose shortest paths went through the removed word or edge.
+     *
+     * @param storage how the edges of the graph are stored
+     * @param dynamic true to keep ids stable and update the precomputed tables on removals
+     */
+    public GraphProcessor(Graph.Storage storage, boolean dynamic) {
+        this.graph = new Graph<>(storage, dynamic);
+        this.wordIndex = new WordIndex(graph);
+        this.dynamic = dynamic;
+        this.freedIds = new BitSet();
+		this.edgeBuilder = EdgeBuilder.BUCKETED;
+		this.bucketIndex = new WordBucketIndex();
+		this.removedEdges = new HashMap<>();
+		this.wordLoader = WordLoader.STREAM;
+		this.queryMode = QueryMode.PRECOMPUTED;
+		this.pathBuffer = new int[0];
+		this.neighborBuffer = new int[0];
+		this.search = new LazyBreadthFirstSearch(graph);
+		this.bidirectionalSearch = new BidirectionalSearch(graph);
+		this.landmarkCount = 16;
+		this.editDistanceSearch = new AStarSearch(graph, new EditDistanceHeuristic(graph));
+    }
+
+    /**
+     * Sets how shortest path queries are answered. With {@link QueryMode#ON_DEMAND} or
+     * {@link QueryMode#BIDIRECTIONAL}, calling {@link #shortestPathPrecomputation()} is not needed.
+     * On demand queries that share their second word reuse the same search, while bidirectional
+     * queries visit far fewer words for a single pair.
+     *
+     * @param queryMode the way queries are answered
+     */
+    public void setQueryMode(QueryMode queryMode) {
+        this.queryMode = queryMode;
+    }
+
+    /**
+     * Sets whether {@link QueryMode#COMPACT} stores only the upper triangle of the distance table, which
+     * halves its memory since the distance from a word to another is the same both ways
+     *
+     * @param upperTriangleOnly true to store each distance once
+     */
+    public void setUpperTriangleOnly(boolean upperTriangleOnly) {
+        this.upperTriangleOnly = upperTriangleOnly;
+    }
+
+    /**
+     * Sets a cache of the paths found by queries, so a pair asked again, either way round, is answered without
+     * searching. Any change to the graph clears it. Worth it in the modes that search for each query; with a
+     * cache, the path between two words is the same both ways, and distance queries also find the path.
+     *
+     * @param pathCache the cache, or null for none
+     */
+    public void setPathCache(PathCache pathCache) {
+        this.pathCache = pathCache;
+        if ( pathCache != null ) {
+            pathCache.clear();
+        }
+    }
+
+    /**
+     * Sets a cache of whole search trees, one per first word of a query, so every later query from a cached
+     * first word is answered in O(path length) without searching, whatever its second word. Any change to
+     * the graph clears it. Used in the modes that search for each query; the path returned may then differ
+     * from the other modes when there are several shortest paths. A path cache, if set, is looked up first.
+     *
+     * @param treeCache the cache, or null for none
+     */
+    public void setSearchTreeCache(SearchTreeCache treeCache) {
+        this.treeCache = treeCache;
+        if ( treeCache != null ) {
+            treeCache.clear();
+        }
+    }
+
+    /**
+     * Sets the words used as landmarks by {@link QueryMode#LANDMARK}. Words that are not in the graph are ignored.
+     *
+     * @param words the landmark words
+     */
+    public void setLandmarks(String... words) {
+        this.landmarkWords = words.clone();
+    }
+
+    /**
+     * Sets the number of landmarks {@link QueryMode#LANDMARK} chooses by itself, spread as far apart as
+     * possible, when none are given with {@link #setLandmarks(String...)}. The default is 16.
+     *
+     * @param landmarkCount the number of landmarks
+     */
+    public void setLandmarkCount(int landmarkCount) {
+        this.landmarkCount = landmarkCount;
+        this.landmarkWords = null;
+    }
+
+    /**
+     * Sets whether {@link #shortestPathPrecomputation()} updates the tables of {@link QueryMode#PRECOMPUTED}
+     * for the words added since it last ran, instead of computing them again from scratch. Since
+     * {@link #populateGraph(String)} only ever adds words, every new path goes through a new word, so only
+     * the new words are searched from, and the other distances are relaxed through them in O(k * V^2)
+     * for k new words. When there are several shortest paths, the one returned may differ from a full
+     * precomputation.
+     *
+     * @param incrementalPrecomputation true to update the tables incrementally
+     */
+    public void setIncrementalPrecomputation(boolean incrementalPrecomputation) {
+        this.incrementalPrecomputation = incrementalPrecomputation;
+    }
+
+    /**
+     * Sets whether {@link #shortestPathPrecomputation()} runs its searches on {@link #setParallelism(int)} threads.
+     * The tables are the same either way.
+     *
+     * @param parallelPrecomputation true to run the precomputation in parallel
+     */
+    public void setParallelPrecomputation(boolean parallelPrecomputation) {
+        this.parallelPrecomputation = parallelPrecomputation;
+    }
+
+    /**
+     * Sets how {@link #populateGraph(String)} reads the words of a file. Use {@link WordLoader#MAPPED}
+     * for large files, which are then never held in memory as lines or as a list of words.
+     *
+     * @param wordLoader the way words are read
+     */
+    public void setWordLoader(WordLoader wordLoader) {
+        this.wordLoader = wordLoader;
+    }
+
+    /**
+     * Sets how {@link #populateGraph(String)} finds the edges between words. Both ways add the same edges.
+     *
+     * @param edgeBuilder the way edges are found
+     */
+    public void setEdgeBuilder(EdgeBuilder edgeBuilder) {
+        this.edgeBuilder = edgeBuilder;
+    }
+
+    /**
+     * Sets the number of threads used by the parallel modes. By default they run in the common
+     * {@link ForkJoinPool}, which has about one thread per available processor. Otherwise the processor keeps
+     * a pool of this many threads for all its parallel work, until {@link #shutdown()} or the next call.
+     *
+     * @param parallelism the number of threads, at least 1
+     */
+    public void setParallelism(int parallelism) {
+        if ( parallelism < 1 ) {
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        shutdown();
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Shuts down the pool made by {@link #setParallelism(int)}, if any, once the parallel work running in it is
+     * done. The parallel modes then run in the common {@link ForkJoinPool} again.
+     */
+    public void shutdown() {
+        if ( pool != null ) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Gets the pool the parallel modes run in
+     *
+     * @return the pool of {@link #setParallelism(int)}, or the common pool
+     */
+    private ForkJoinPool pool() {
+    	return pool != null ? pool : ForkJoinPool.commonPool();
     }
 
     /**
@@ -63,6 +352,9 @@ public class GraphProcessor {
      *
      * For all possible pairs of vertices, finds if the pair of vertices is adjacent {@link WordProcessor#isAdjacent(String, String)}
      * If a pair is adjacent, adds an undirected and unweighted edge between the pair of vertices in the graph.
+     * With {@link EdgeBuilder#BUCKETED} only pairs that share a bucket of the {@link WordBucketIndex} are compared,
+     * and words connected by an earlier call are not compared again. {@link EdgeBuilder#PARALLEL} does the same
+     * comparisons on {@link #setParallelism(int)} threads.
      *
      * @param filepath file path to the dictionary
      * @return Integer the number of vertices (words) added
@@ -70,14 +362,40 @@ public class GraphProcessor {
      */
     public Integer populateGraph(String filepath) throws IOException {
     	int count = 0;
-    	Stream<String> wordStream = WordProcessor.getWordStream(filepath);
+    	search.invalidate();
+    	clearCaches();
+		if ( wordLoader == WordLoader.MAPPED ) {
+			WordProcessor.readWords(filepath, graph::addVertex);
+		}
+		else {
+			Stream<String> wordStream = WordProcessor.getWordStream(filepath);
 
-		ArrayList<String> stringsFromStream = wordStream.map(string -> string.split(" "))
-				.flatMap(Arrays::stream).collect(Collectors.toCollection(ArrayList::new));
+			ArrayList<String> stringsFromStream = wordStream.map(WHITESPACE::split)
+					.flatMap(Arrays::stream).filter(token -> !token.isEmpty())
+					.collect(Collectors.toCollection(ArrayList::new));
 
-		for ( String token : stringsFromStream ) {
-			graph.addVertex(token);
-			vertices.add(token);
+			for ( String token : stringsFromStream ) {
+				graph.addVertex(token);
+			}
+		}
+		wordIndex.update();
+
+		if ( edgeBuilder == EdgeBuilder.PARALLEL ) {
+			new ParallelEdgeBuilder(graph, bucketIndex, pool(), this::isRemovedEdge).build();
+			return graph.size();
+		}
+		else if ( edgeBuilder == EdgeBuilder.BUCKETED ) {
+			for ( String node : graph.getAllVertices() ) {
+				if ( !bucketIndex.contains(node) ) {
+					for ( String neighbor : bucketIndex.addWord(node) ) {
+						if ( !isRemovedEdge(node, neighbor) ) {
+							graph.addEdge(node, neighbor);
+						}
+					}
+				}
+				count++;
+			}
+			return count;
 		}
 
     	/*
@@ -85,7 +403,7 @@ public class GraphProcessor {
     	 */
 		for ( String node1 : graph.getAllVertices() ) {
 			for ( String node2 : graph.getAllVertices() ) {
-				if ( WordProcessor.isAdjacent(node1, node2) ) {
+				if ( WordProcessor.isAdjacent(node1, node2) && !isRemovedEdge(node1, node2) ) {
 					graph.addEdge(node1, node2);
 				}
 			}
@@ -95,6 +413,197 @@ public class GraphProcessor {
         return count;
     }
 
+    /**
+     * Removes a word and its edges from the graph, keeping the data of the query mode correct.
+     *
+     * In a dynamic processor with up to date {@link QueryMode#PRECOMPUTED} tables, only the rows of the words
+     * whose shortest path tree went through the removed word are searched again. Otherwise a precomputation
+     * that has been run is run again, since the ids of the words after the removed one have changed.
+     *
+     * @param word the word to remove
+     * @return true if the word was removed, false if it is not in the graph
+     */
+    public boolean removeWord(String word) {
+		String vertex = word.toUpperCase();
+		int id = graph.indexOf(vertex);
+		if ( id == -1 ) {
+			return false;
+		}
+
+		int[] neighbors = graph.getNeighborIds(id);
+		boolean update = dynamic && tablesCurrent();
+		graph.removeVertex(vertex);
+		wordIndex.update();
+		bucketIndex.remove(vertex);
+		forgetRemovedEdges(vertex);
+		search.invalidate();
+		clearCaches();
+		if ( update ) {
+			removeFromTables(id, neighbors);
+			freedIds.set(id);
+		}
+		else {
+			refreshPrecomputation();
+		}
+		return true;
+    }
+
+    /**
+     * Removes the edge between two adjacent words, keeping the data of the query mode correct the same way
+     * as {@link #removeWord(String)}. The edge is not added back by later calls to {@link #populateGraph(String)},
+     * whatever the edge builder, unless one of its words is removed and added again.
+     *
+     * @param word1 first word
+     * @param word2 second word
+     * @return true if the edge was removed, false if the words are not adjacent in the graph
+     */
+    public boolean removeEdge(String word1, String word2) {
+		String vertex1 = word1.toUpperCase();
+		String vertex2 = word2.toUpperCase();
+		if ( !graph.isAdjacent(vertex1, vertex2) ) {
+			return false;
+		}
+
+		boolean update = dynamic && tablesCurrent();
+		graph.removeEdge(vertex1, vertex2);
+		removedEdges.computeIfAbsent(vertex1, vertex -> new HashSet<>()).add(vertex2);
+		removedEdges.computeIfAbsent(vertex2, vertex -> new HashSet<>()).add(vertex1);
+		search.invalidate();
+		clearCaches();
+		if ( update ) {
+			removeFromTables(graph.indexOf(vertex1), graph.indexOf(vertex2));
+		}
+		else {
+			refreshPrecomputation();
+		}
+		return true;
+    }
+
+    /**
+     * Checks whether an edge was removed by {@link #removeEdge(String, String)}, so the edge builders leave it out
+     *
+     * @param vertex1 first word, in upper case
+     * @param vertex2 second word, in upper case
+     * @return true if the edge was removed
+     */
+    private boolean isRemovedEdge(String vertex1, String vertex2) {
+		HashSet<String> others = removedEdges.get(vertex1);
+		return others != null && others.contains(vertex2);
+    }
+
+    /**
+     * Forgets the removed edges of a word that is removed, so the word gets all its edges if it is added again
+     *
+     * @param vertex the word, in upper case
+     */
+    private void forgetRemovedEdges(String vertex) {
+		HashSet<String> others = removedEdges.remove(vertex);
+		if ( others == null ) {
+			return;
+		}
+		for ( String other : others ) {
+			HashSet<String> edges = removedEdges.get(other);
+			edges.remove(vertex);
+			if ( edges.isEmpty() ) {
+				removedEdges.remove(other);
+			}
+		}
+    }
+
+    /**
+     * Saves the graph, and the distances of the query mode if it has any, to a binary snapshot that
+     * {@link #loadSnapshot(String)} reads back without rebuilding anything, see {@link GraphSnapshot}.
+     * The edge storage, whether the processor is dynamic and the edges removed by {@link #removeEdge(String, String)}
+     * are saved with the graph. Distances are written from the {@link QueryMode#PRECOMPUTED} tables or the
+     * {@link QueryMode#COMPACT} store only if {@link #shortestPathPrecomputation()} has been invoked since words
+     * were last added, otherwise the snapshot has no distances. The snapshot is written to a temporary file and
+     * renamed, so a failed save leaves any earlier file at filepath as it was.
+     *
+     * @param filepath file path of the snapshot
+     * @throws IOException exception resulting from writing the filepath
+     */
+    public void saveSnapshot(String filepath) throws IOException {
+		IntBinaryOperator distances = null;
+		if ( tablesCurrent() ) {
+			distances = (id1, id2) -> dist[id1][id2];
+		}
+		else if ( pathStore != null && idsCurrent(pathStore.getVertexCount()) ) {
+			distances = pathStore::distance;
+		}
+		GraphSnapshot.write(filepath, graph, removedEdges, distances);
+    }
+
+    /**
+     * Loads a processor from a snapshot written by {@link #saveSnapshot(String)}, with the edge storage, the
+     * dynamic setting and the removed edges of the saved processor. If the snapshot has distances,
+     * they are memory-mapped read-only and queries are answered from them straight away in {@link QueryMode#COMPACT},
+     * with no precomputation; when there are several shortest paths, the one returned may differ from the saved
+     * processor. Otherwise the processor is in {@link QueryMode#PRECOMPUTED} like a new one. Words can still be
+     * added with {@link #populateGraph(String)}: the loaded words count as already connected, so only the new
+     * words are compared, and removed edges stay removed.
+     *
+     * @param filepath file path of the snapshot
+     * @return GraphProcessor the processor, with the graph of the snapshot
+     * @throws IOException exception resulting from reading the filepath, or if it is not a snapshot
+     */
+    public static GraphProcessor loadSnapshot(String filepath) throws IOException {
+		GraphSnapshot.Settings settings = GraphSnapshot.readSettings(filepath);
+		GraphProcessor processor = new GraphProcessor(settings.storage, settings.stableIds);
+		CompactPathStore store = GraphSnapshot.read(filepath, processor.graph, (vertex1, vertex2) -> {
+			processor.removedEdges.computeIfAbsent(vertex1, vertex -> new HashSet<>()).add(vertex2);
+			processor.removedEdges.computeIfAbsent(vertex2, vertex -> new HashSet<>()).add(vertex1);
+		});
+		processor.wordIndex.update();
+		for ( String word : processor.graph.getAllVertices() ) {
+			processor.bucketIndex.add(word);
+		}
+		if ( store != null ) {
+			processor.queryMode = QueryMode.COMPACT;
+			processor.pathStore = store;
+		}
+		return processor;
+    }
+
+    /**
+     * Empties the path and search tree caches, if there are any, after a change to the graph
+     */
+    private void clearCaches() {
+		if ( pathCache != null ) {
+			pathCache.clear();
+		}
+		if ( treeCache != null ) {
+			treeCache.clear();
+		}
+		treeSearch = null;
+    }
+
+    /**
+     * Gets the graph of words, for tests
+     *
+     * @return the graph
+     */
+    Graph<String> getGraph() {
+        return graph;
+    }
+
+    /**
+     * Gets the distance table of {@link QueryMode#PRECOMPUTED}, for readers that share it without copying
+     *
+     * @return the table indexed by graph id, or null if it has not been computed
+     */
+    int[][] getDistanceTable() {
+        return dist;
+    }
+
+    /**
+     * Gets the predecessor table of {@link QueryMode#PRECOMPUTED}, for readers that share it without copying
+     *
+     * @return the table indexed by graph id, or null if it has not been computed
+     */
+    int[][] getPredecessorTable() {
+        return pred;
+    }
+
 
     /**
      * Gets the list of words that create the shortest path between word1 and word2
@@ -114,22 +623,336 @@ public class GraphProcessor {
      * @return List<String> list of the words
      */
     public List<String> getShortestPath(String word1, String word2) {
-    	List<String> list = new ArrayList<>();
+    	int length = queryPath(word1, word2);
+    	List<String> list = new ArrayList<>(length);
+		for ( int i = 0; i < length; i++ ) {
+			list.add(wordIndex.lowercase(pathBuffer[i]));
+		}
+    	return list;
+    }
 
-        int index1 = vertices.indexOf(word1.toUpperCase());
-        int index2 = vertices.indexOf(word2.toUpperCase());
+    /**
+     * Gets the ids of the words of the shortest path between word1 and word2, the path of
+     * {@link #getShortestPath(String, String)}, without allocating. The word of an id is given by {@link #getWord(int)}.
+     * Only the first ids.length ids are written if the path is longer, so a caller can retry with a larger array.
+     *
+     * Nothing is allocated per query in any query mode once its searches have seen the graph. Only caches
+     * allocate: a path or search tree cache for what it stores, and a path cache to reverse a path on a hit.
+     *
+     * @param word1 first word
+     * @param word2 second word
+     * @param ids receives the ids of the words of the path
+     * @return int the number of words of the path, 0 under the same conditions as an empty list
+     */
+    public int getShortestPath(String word1, String word2, int[] ids) {
+		int length = queryPath(word1, word2);
+		System.arraycopy(pathBuffer, 0, ids, 0, Math.min(length, ids.length));
+		return length;
+    }
 
-        // Only look for path if words are not the same
-		if ( !word1.equals(word2) ) {
+    /**
+     * Passes the ids of the words of the shortest path between word1 and word2 to a consumer, in order,
+     * without allocating, as {@link #getShortestPath(String, String, int[])} does
+     *
+     * @param word1 first word
+     * @param word2 second word
+     * @param ids receives the ids of the words of the path
+     * @return int the number of words of the path, 0 under the same conditions as an empty list
+     */
+    public int getShortestPath(String word1, String word2, IntConsumer ids) {
+		int length = queryPath(word1, word2);
+		for ( int i = 0; i < length; i++ ) {
+			ids.accept(pathBuffer[i]);
+		}
+		return length;
+    }
 
-			// after last pred, index1 will be -1
-			while ( index1 != -1 ) {
-				list.add(vertices.get(index1).toLowerCase());
-				index1 = pred[index2][index1];
+    /**
+     * Appends the words of the shortest path between word1 and word2 to a character sink, in lower case and
+     * separated by a separator, without allocating, as {@link #getShortestPath(String, String, int[])} does.
+     * The lowercase form of each word is kept in a {@link WordArena} when it is added to the graph, and copied from there.
+     *
+     * @param word1 first word
+     * @param word2 second word
+     * @param out receives the words of the path
+     * @param separator written between two words
+     * @return int the number of words of the path, 0 under the same conditions as an empty list
+     * @throws IOException exception resulting from appending to out
+     */
+    public int getShortestPath(String word1, String word2, Appendable out, CharSequence separator) throws IOException {
+		int length = queryPath(word1, word2);
+		for ( int i = 0; i < length; i++ ) {
+			if ( i > 0 ) {
+				out.append(separator);
 			}
+			wordIndex.appendLowercase(pathBuffer[i], out);
 		}
+		return length;
+    }
 
-    	return list;
+    /**
+     * Gets the word of an id given by {@link #getShortestPath(String, String, int[])}
+     *
+     * @param id the id of the word
+     * @return String the word, in lower case
+     */
+    public String getWord(int id) {
+		return wordIndex.lowercase(id);
+    }
+
+    /**
+     * Finds the shortest path between word1 and word2 into {@link #pathBuffer}
+     *
+     * @param word1 first word
+     * @param word2 second word
+     * @return the number of ids of the path
+     */
+    private int queryPath(String word1, String word2) {
+		int id1 = wordIndex.indexOf(word1);
+		int id2 = wordIndex.indexOf(word2);
+
+		// Only look for path if words are not the same, and both are in the graph
+		if ( id1 == -1 || id2 == -1 || word1.equals(word2) ) {
+			return 0;
+		}
+
+		int length;
+		if ( pathCache != null ) {
+			int[] path = cachedPath(id1, id2);
+			length = 0;
+			if ( path != null ) {
+				length = path.length;
+				System.arraycopy(path, 0, pathBuffer(length), 0, length);
+			}
+		}
+		else {
+			SearchTreeCache.SearchTree tree = searchTree(id1);
+			length = tree == null ? fillPath(id1, id2) : tree.path(id2, pathBuffer(tree.distance(id2) + 1));
+		}
+
+		// Like the precomputed tables, an unreachable word2 gives a path of only word1
+		if ( length == 0 ) {
+			pathBuffer(1)[0] = id1;
+			length = 1;
+		}
+		return length;
+    }
+
+    /**
+     * Gets {@link #pathBuffer}, making it large enough first
+     *
+     * @param length the number of ids it must hold
+     * @return the buffer
+     */
+    private int[] pathBuffer(int length) {
+		if ( pathBuffer.length < length ) {
+			pathBuffer = new int[Math.max(length, graph.getVertexCount())];
+		}
+		return pathBuffer;
+    }
+
+    /**
+     * Finds a shortest path between two vertices in the way of the query mode
+     *
+     * @param id1 the id of the first vertex
+     * @param id2 the id of the second vertex, different from id1
+     * @return the ids of the vertices of the path from id1 to id2, or null if there is no path
+     */
+    private int[] findPath(int id1, int id2) {
+		int length = fillPath(id1, id2);
+		return length == 0 ? null : Arrays.copyOf(pathBuffer, length);
+    }
+
+    /**
+     * Finds a shortest path between two vertices in the way of the query mode, into {@link #pathBuffer}
+     *
+     * @param id1 the id of the first vertex
+     * @param id2 the id of the second vertex, different from id1
+     * @return the number of ids of the path from id1 to id2, 0 if there is no path
+     */
+    private int fillPath(int id1, int id2) {
+		if ( queryMode == QueryMode.ON_DEMAND ) {
+			// the path follows the search tree rooted at word2, the same tree as pred[index2]
+			int distance = search.distance(id2, id1);
+			int[] path = pathBuffer(distance + 1);
+			for ( int i = 0; i <= distance; i++ ) {
+				path[i] = id1;
+				id1 = search.predecessor(id1);
+			}
+			return distance + 1;
+		}
+		else if ( queryMode == QueryMode.BIDIRECTIONAL ) {
+			int distance = bidirectionalSearch.search(id1, id2);
+			return distance == -1 ? 0 : bidirectionalSearch.getPath(pathBuffer(distance + 1));
+		}
+		else if ( queryMode == QueryMode.LANDMARK || queryMode == QueryMode.ASTAR ) {
+			int distance = aStarDistance(id1, id2);
+			if ( distance == -1 ) {
+				return 0;
+			}
+			return (queryMode == QueryMode.LANDMARK ? landmarkSearch : editDistanceSearch).getPath(pathBuffer(distance + 1));
+		}
+		else if ( queryMode == QueryMode.COMPACT ) {
+			int distance = pathStore.distance(id1, id2);
+			int[] path = pathBuffer(distance + 1);
+			if ( neighborBuffer.length < graph.getVertexCount() ) {
+				neighborBuffer = new int[graph.getVertexCount()];
+			}
+			for ( int i = 0; i <= distance; i++ ) {
+				path[i] = id1;
+				id1 = pathStore.nextStep(graph, id1, id2, neighborBuffer);
+			}
+			return distance + 1;
+		}
+
+		// after last pred, id1 will be -1
+		int distance = dist[id2][id1];
+		int[] path = pathBuffer(distance + 1);
+		for ( int i = 0; i <= distance; i++ ) {
+			path[i] = id1;
+			id1 = pred[id2][id1];
+		}
+		return distance + 1;
+    }
+
+    /**
+     * Finds a shortest path between two vertices in the search tree cache, falling back on the query mode
+     *
+     * @param id1 the id of the first vertex
+     * @param id2 the id of the second vertex, different from id1
+     * @return the ids of the vertices of the path from id1 to id2, or null if there is no path
+     */
+    private int[] searchPath(int id1, int id2) {
+		SearchTreeCache.SearchTree tree = searchTree(id1);
+		return tree == null ? findPath(id1, id2) : tree.path(id2);
+    }
+
+    /**
+     * Gets the search tree of a source from the tree cache, searching from the source and caching its tree on a miss
+     *
+     * @param source the id of the source
+     * @return the tree, or null if there is no tree cache, the query mode does not search for each query,
+     * or a distance from the source does not fit in a tree
+     */
+    private SearchTreeCache.SearchTree searchTree(int source) {
+		if ( treeCache == null || !searchesEachQuery() ) {
+			return null;
+		}
+		SearchTreeCache.SearchTree tree = treeCache.get(source);
+		if ( tree != null ) {
+			return tree;
+		}
+
+		if ( treeSearch == null ) {
+			treeSearch = new BreadthFirstSearch(graph);
+		}
+		int vertexCount = graph.getVertexCount();
+		int[] treeDist = new int[vertexCount];
+		int[] treePred = new int[vertexCount];
+		Arrays.fill(treeDist, -1);
+		treeSearch.run(source, treeDist, treePred);
+		for ( int distance : treeDist ) {
+			// a ladder of over 32767 words, left to the search of the query mode
+			if ( distance > Short.MAX_VALUE ) {
+				return null;
+			}
+		}
+		tree = new SearchTreeCache.SearchTree(treeDist, treePred);
+		treeCache.put(source, tree);
+		return tree;
+    }
+
+    /**
+     * Gets whether the query mode searches for each query, rather than looking up precomputed distances
+     *
+     * @return true in {@link QueryMode#ON_DEMAND}, {@link QueryMode#BIDIRECTIONAL}, {@link QueryMode#LANDMARK}
+     * and {@link QueryMode#ASTAR}
+     */
+    private boolean searchesEachQuery() {
+		return queryMode == QueryMode.ON_DEMAND || queryMode == QueryMode.BIDIRECTIONAL
+				|| queryMode == QueryMode.LANDMARK || queryMode == QueryMode.ASTAR;
+    }
+
+    /**
+     * Gets a shortest path between two vertices from the path cache, finding and caching it on a miss
+     *
+     * @param id1 the id of the first vertex
+     * @param id2 the id of the second vertex, different from id1
+     * @return the ids of the vertices of the path from id1 to id2, or null if there is no path
+     */
+    private int[] cachedPath(int id1, int id2) {
+		int[] path = pathCache.get(id1, id2);
+		if ( path == null ) {
+			path = searchPath(id1, id2);
+			pathCache.put(id1, id2, path);
+			return path;
+		}
+		return path.length == 0 ? null : path;
+    }
+
+    /**
+     * Gets the shortest paths between many pairs of words, passing each to a consumer as soon as it is found.
+     *
+     * Each word is looked up once per pair, and the pairs are grouped by their second word, so one breadth
+     * first search from each distinct second word answers every pair that shares it, the same search tree
+     * {@link #getShortestPath(String, String)} follows. The searches run on {@link #setParallelism(int)} threads.
+     * With up to date {@link QueryMode#PRECOMPUTED} tables no search is run. The paths are the same as
+     * {@link #getShortestPath(String, String)} in {@link QueryMode#PRECOMPUTED}, whatever the query mode.
+     *
+     * The consumer is called once per pair, from several threads at once and in no particular order,
+     * so it must be thread safe. It has been called for every pair when this method returns.
+     *
+     * @param pairs the pairs of words, as (word1, word2) entries
+     * @param consumer receives the path of each pair
+     */
+    public void getShortestPaths(Collection<? extends Map.Entry<String, String>> pairs, PathConsumer consumer) {
+		List<Map.Entry<String, String>> entries = new ArrayList<>(pairs);
+		int vertexCount = graph.getVertexCount();
+		int[] ids1 = new int[entries.size()];
+		int[] ids2 = new int[entries.size()];
+
+		/*
+		 * Pairs without a path to search are answered straight away, the others are counted by second word
+		 */
+		int[] groupStarts = new int[vertexCount + 1];
+		for ( int i = 0; i < entries.size(); i++ ) {
+			String word1 = entries.get(i).getKey();
+			String word2 = entries.get(i).getValue();
+			ids1[i] = wordIndex.indexOf(word1);
+			ids2[i] = wordIndex.indexOf(word2);
+			if ( ids1[i] == -1 || ids2[i] == -1 || word1.equals(word2) ) {
+				ids2[i] = -1;
+				consumer.accept(word1, word2, new ArrayList<>());
+			}
+			else {
+				groupStarts[ids2[i] + 1]++;
+			}
+		}
+
+		// counting sort of the pairs by second word, the pairs of word2 are order[groupStarts[word2]] onward
+		for ( int id = 0; id < vertexCount; id++ ) {
+			groupStarts[id + 1] += groupStarts[id];
+		}
+		int[] order = new int[groupStarts[vertexCount]];
+		int[] next = Arrays.copyOf(groupStarts, vertexCount);
+		int[] roots = new int[vertexCount];
+		int rootCount = 0;
+		for ( int i = 0; i < entries.size(); i++ ) {
+			int id2 = ids2[i];
+			if ( id2 != -1 ) {
+				if ( next[id2] == groupStarts[id2] ) {
+					roots[rootCount++] = id2;
+				}
+				order[next[id2]++] = i;
+			}
+		}
+		if ( rootCount == 0 ) {
+			return;
+		}
+
+		boolean tables = queryMode == QueryMode.PRECOMPUTED && tablesCurrent();
+		BatchTask task = new BatchTask(new BatchQuery(entries, ids1, order, groupStarts, roots, consumer, tables), 0, rootCount);
+		pool().invoke(task);
     }
 
     /**
@@ -150,68 +973,540 @@ public class GraphProcessor {
      * @return Integer distance
      */
     public Integer getShortestDistance(String word1, String word2) {
+		int id1 = wordIndex.indexOf(word1);
+		int id2 = wordIndex.indexOf(word2);
 
-		word1 = word1.toUpperCase();
-		word2 = word2.toUpperCase();
-
-    	// if word one equals word 2, OR if either word are not included in graph
+    	// if word one equals word 2, whatever the case, OR if either word are not included in graph
 		// -1 gets returned as shortest distance
-		if ( word1.equals(word2) ) {
+		if ( id1 == -1 || id2 == -1 || id1 == id2 ) {
 			return -1;
 		}
-		else if ( !vertices.contains(word1) || !vertices.contains(word2) ) {
-			return -1;
+		else if ( pathCache != null ) {
+			int[] path = cachedPath(id1, id2);
+			return path == null ? -1 : path.length - 1;
+		}
+		else if ( treeCache != null && searchesEachQuery() ) {
+			SearchTreeCache.SearchTree tree = searchTree(id1);
+			if ( tree != null ) {
+				return tree.distance(id2);
+			}
+			int[] path = findPath(id1, id2);
+			return path == null ? -1 : path.length - 1;
+		}
+		else if ( queryMode == QueryMode.ON_DEMAND ) {
+			return search.distance(id2, id1);
+		}
+		else if ( queryMode == QueryMode.BIDIRECTIONAL ) {
+			return bidirectionalSearch.search(id1, id2);
+		}
+		else if ( queryMode == QueryMode.COMPACT ) {
+			return pathStore.distance(id1, id2);
+		}
+		else if ( queryMode == QueryMode.LANDMARK || queryMode == QueryMode.ASTAR ) {
+			return aStarDistance(id1, id2);
+		}
+		return dist[id1][id2];
+    }
+
+    /**
+     * Gets bounds on the distance between word1 and word2 in O(k) from the landmarks of {@link QueryMode#LANDMARK},
+     * without searching. {@link #shortestPathPrecomputation()} must have been invoked in that mode.
+     *
+     * @param word1 first word
+     * @param word2 second word
+     * @return int[] the lower and upper bound, both -1 if there is no path or either word is not in the graph,
+     * and an upper bound of -1 if no landmark reaches the words
+     */
+    public int[] getShortestDistanceBounds(String word1, String word2) {
+		int word1Index = wordIndex.indexOf(word1);
+		int word2Index = wordIndex.indexOf(word2);
+		if ( word1Index == -1 || word2Index == -1 ) {
+			return new int[] {-1, -1};
+		}
+
+		int lower = landmarkOracle.lowerBound(word1Index, word2Index);
+		if ( lower == -1 ) {
+			return new int[] {-1, -1};
 		}
+		return new int[] {lower, landmarkOracle.upperBound(word1Index, word2Index)};
+    }
 
-		int word1Index = vertices.indexOf(word1);
-		int word2Index = vertices.indexOf(word2);
-		return dist[word1Index][word2Index];
+    /**
+     * Gets the distance between two vertices with the A* search of the query mode,
+     * which then holds the path
+     *
+     * @param id1 the id of the first vertex
+     * @param id2 the id of the second vertex
+     * @return the distance, or -1 if there is no path
+     */
+    private int aStarDistance(int id1, int id2) {
+		if ( queryMode == QueryMode.ASTAR ) {
+			return editDistanceSearch.search(id1, id2);
+		}
+		if ( landmarkOracle.lowerBound(id1, id2) == -1 ) {
+			return -1;
+		}
+		return landmarkSearch.search(id1, id2);
     }
 
     /**
      * Computes shortest paths and distances between all possible pairs of vertices.
      * This method is called after every set of updates in the graph to recompute the path information.
      * Any shortest path algorithm can be used (Djikstra's or Floyd-Warshall recommended).
+     * In {@link QueryMode#ON_DEMAND}, {@link QueryMode#BIDIRECTIONAL} and {@link QueryMode#ASTAR} there is nothing to precompute,
+     * and this only frees earlier tables. In {@link QueryMode#LANDMARK} only the searches from the landmarks are run.
      */
     public void shortestPathPrecomputation() {
-    	visited = new boolean[vertices.size()];
-    	dist = new int[vertices.size()][vertices.size()];
-    	pred = new int[vertices.size()][vertices.size()];
-    	for(int i = 0; i < vertices.size(); i++) {
-    		for(int j = 0; j < vertices.size(); j++) {
-        		dist[i][j] = -1;
-        		pred[i][j] = -1;
-        	}
-    	}
-    	for(String vertex : graph.getAllVertices()) {
-    		BFS(vertices.indexOf(vertex));
-    	}
-    }
-    /**
-     * Computes shortest distances and best predecessors in relation to the source node
-     * @param src the source node
-     */
-    private void BFS(int src) {
-    	LinkedList<String> queue = new LinkedList<>();
-    	for(int i = 0; i < vertices.size(); i++) {
-    		visited[i] = false;
-    	}
-    	queue.add(vertices.get(src));
-    	visited[src] = true;
-    	dist[src][src] = 0;
-    	int index;
-    	while(!queue.isEmpty()) {
-    		String u = queue.remove();
-    		Iterable<String> neighbors = graph.getNeighbors(u);
-    		for(String s : neighbors) {
-    			index = vertices.indexOf(s);
-    			if(!visited[index]) {
-    				queue.add(s);
-    				visited[index] = true;
-    				dist[src][index] = dist[src][vertices.indexOf(u)] + 1; //sets distance to predecessor distance + 1
-    				pred[src][index] = vertices.indexOf(u); //sets predecessor
+    	landmarkOracle = null;
+    	landmarkSearch = null;
+    	if ( searchesEachQuery() ) {
+    		dist = null;
+    		pred = null;
+    		pathStore = null;
+    		if ( queryMode == QueryMode.LANDMARK ) {
+    			precomputeLandmarks();
+    		}
+    		return;
+    	}
+
+    	int vertexCount = graph.getVertexCount();
+    	if ( queryMode == QueryMode.COMPACT ) {
+    		dist = null;
+    		pred = null;
+    		pathStore = new CompactPathStore(vertexCount, upperTriangleOnly);
+    	}
+    	else if ( incrementalPrecomputation && dist != null ) {
+    		extendPrecomputation(dist.length);
+    		recordFreedIds();
+    		return;
+    	}
+    	else {
+    		pathStore = null;
+    		dist = new int[vertexCount][vertexCount];
+    		pred = new int[vertexCount][vertexCount];
+    		for(int i = 0; i < vertexCount; i++) {
+    			Arrays.fill(dist[i], -1);
+    			Arrays.fill(pred[i], -1);
+    		}
+    	}
+
+    	if ( parallelPrecomputation ) {
+    		pool().invoke(new PrecomputationTask(0, vertexCount));
+    	}
+    	else {
+    		precompute(0, vertexCount);
+    	}
+    	recordFreedIds();
+    }
+
+    /**
+     * Records the ids that have no word, so that a word given one of them later is known to be new
+     */
+    private void recordFreedIds() {
+    	freedIds.clear();
+    	for(int id = 0; id < graph.getVertexCount(); id++) {
+    		if ( graph.getVertex(id) == null ) {
+    			freedIds.set(id);
+    		}
+    	}
+    }
+
+    /**
+     * Updates {@link #dist} and {@link #pred} for the vertices added since they were computed.
+     *
+     * New vertices get ids from oldCount on, or ids freed by removed words in a dynamic processor,
+     * and every new edge has a new vertex at one end, since two old words already have their edge unless
+     * it was removed, and removed edges are never added back, so a path that got shorter passes through a
+     * new vertex w: d(s, t) = min(d(s, t), d(s, w) + d(w, t)). The rows of the new vertices come from
+     * a search each, which also gives their columns since the graph is undirected. An old pair whose
+     * path shortens through w takes its next step toward w. Every other predecessor still has a
+     * distance one less after the update, so it stays valid.
+     *
+     * @param oldCount the number of vertex ids the tables were computed for
+     */
+    private void extendPrecomputation(int oldCount) {
+    	int vertexCount = graph.getVertexCount();
+    	boolean[] isNew = new boolean[vertexCount];
+    	int[] newIds = new int[vertexCount];
+    	int newCount = 0;
+    	for(int id = freedIds.nextSetBit(0); id != -1; id = freedIds.nextSetBit(id + 1)) {
+    		if ( id < oldCount && graph.getVertex(id) != null ) {
+    			isNew[id] = true;
+    			newIds[newCount++] = id;
+    		}
+    	}
+    	for(int id = oldCount; id < vertexCount; id++) {
+    		isNew[id] = true;
+    		newIds[newCount++] = id;
+    	}
+    	if ( newCount == 0 ) {
+    		return;
+    	}
+
+    	if ( oldCount < vertexCount ) {
+    		int[][] oldDist = dist;
+    		int[][] oldPred = pred;
+    		dist = new int[vertexCount][];
+    		pred = new int[vertexCount][];
+    		for(int i = 0; i < vertexCount; i++) {
+    			if ( i < oldCount ) {
+    				dist[i] = Arrays.copyOf(oldDist[i], vertexCount);
+    				pred[i] = Arrays.copyOf(oldPred[i], vertexCount);
+    				Arrays.fill(dist[i], oldCount, vertexCount, -1);
+    				Arrays.fill(pred[i], oldCount, vertexCount, -1);
     			}
+    			else {
+    				dist[i] = new int[vertexCount];
+    				pred[i] = new int[vertexCount];
+    			}
+    		}
+    	}
+
+    	BreadthFirstSearch search = new BreadthFirstSearch(graph);
+    	for(int n = 0; n < newCount; n++) {
+    		int w = newIds[n];
+    		int[] wDist = dist[w];
+    		int[] wPred = pred[w];
+    		Arrays.fill(wDist, -1);
+    		Arrays.fill(wPred, -1);
+    		search.run(w, wDist, wPred);
+
+    		for(int t = 0; t < vertexCount; t++) {
+    			if ( wDist[t] == -1 || isNew[t] ) {
+    				continue;
+    			}
+    			int[] tDist = dist[t];
+    			int[] tPred = pred[t];
+    			for(int s = 0; s < vertexCount; s++) {
+    				if ( wDist[s] != -1 && s != t && !isNew[s] ) {
+    					int through = wDist[s] + wDist[t];
+    					if ( tDist[s] == -1 || through < tDist[s] ) {
+    						tDist[s] = through;
+    						tPred[s] = wPred[s]; //the next step from s toward w
+    					}
+    				}
+    			}
+    		}
+    	}
+
+    	// the columns of the new vertices, with the next step from the new vertex toward
+    	// each old one taken from its neighbors, now that all old distances are final
+    	for(int n = 0; n < newCount; n++) {
+    		int w = newIds[n];
+    		for(int t = 0; t < vertexCount; t++) {
+    			if ( !isNew[t] ) {
+    				dist[t][w] = dist[w][t];
+    				pred[t][w] = -1;
+    			}
+    		}
+    	}
+    	int[] neighbors = new int[vertexCount];
+    	for(int n = 0; n < newCount; n++) {
+    		int w = newIds[n];
+    		int degree = graph.getNeighborIds(w, neighbors);
+    		for(int t = 0; t < vertexCount; t++) {
+    			int distance = dist[t][w];
+    			if ( distance > 0 && !isNew[t] ) {
+    				for(int i = 0; i < degree; i++) {
+    					if ( dist[t][neighbors[i]] == distance - 1 ) {
+    						pred[t][w] = neighbors[i];
+    						break;
+    					}
+    				}
+    			}
+    		}
+    	}
+    }
+
+    /**
+     * Removes a vertex from {@link #dist} and {@link #pred}, searching again only from the sources
+     * whose shortest path tree went through it. Removing a vertex can only make paths longer, so a
+     * source whose tree has the vertex only as a leaf, or not at all, keeps its tree and distances.
+     *
+     * @param id the id of the removed vertex
+     * @param neighbors the ids of its neighbors before it was removed
+     */
+    private void removeFromTables(int id, int[] neighbors) {
+    	int vertexCount = graph.getVertexCount();
+    	BreadthFirstSearch search = new BreadthFirstSearch(graph);
+    	for(int src = 0; src < vertexCount; src++) {
+    		if ( src == id || dist[src][id] == -1 ) {
+    			continue;
+    		}
+    		boolean affected = false;
+    		for ( int neighbor : neighbors ) {
+    			if ( pred[src][neighbor] == id ) {
+    				affected = true;
+    				break;
+    			}
+    		}
+    		if ( affected ) {
+    			researchRow(search, src);
+    		}
+    		else {
+    			dist[src][id] = -1;
+    			pred[src][id] = -1;
+    		}
+    	}
+    	Arrays.fill(dist[id], -1);
+    	Arrays.fill(pred[id], -1);
+    }
+
+    /**
+     * Removes an edge from {@link #dist} and {@link #pred}, searching again only from the sources
+     * whose shortest path tree used it
+     *
+     * @param id1 the id of one end of the removed edge
+     * @param id2 the id of the other end
+     */
+    private void removeFromTables(int id1, int id2) {
+    	int vertexCount = graph.getVertexCount();
+    	BreadthFirstSearch search = new BreadthFirstSearch(graph);
+    	for(int src = 0; src < vertexCount; src++) {
+    		if ( pred[src][id1] == id2 || pred[src][id2] == id1 ) {
+    			researchRow(search, src);
+    		}
+    	}
+    }
+
+    /**
+     * Computes the rows of {@link #dist} and {@link #pred} of one source again
+     *
+     * @param search the search to use
+     * @param src the source
+     */
+    private void researchRow(BreadthFirstSearch search, int src) {
+    	Arrays.fill(dist[src], -1);
+    	Arrays.fill(pred[src], -1);
+    	search.run(src, dist[src], pred[src]);
+    }
+
+    /**
+     * Checks whether {@link #dist} and {@link #pred} are up to date with the graph: computed, with no
+     * word added since, so they can be updated for a removal
+     *
+     * @return true if the tables describe the graph as it is
+     */
+    private boolean tablesCurrent() {
+    	return dist != null && idsCurrent(dist.length);
+    }
+
+    /**
+     * Checks whether data indexed by id, computed when the graph had a number of ids, covers every word
+     * of the graph: no id was added since, and no id freed then has been given to a new word
+     *
+     * @param idCount the number of ids when the data was computed
+     * @return true if no word was added since
+     */
+    private boolean idsCurrent(int idCount) {
+    	if ( idCount != graph.getVertexCount() ) {
+    		return false;
+    	}
+    	for(int id = freedIds.nextSetBit(0); id != -1; id = freedIds.nextSetBit(id + 1)) {
+    		if ( graph.getVertex(id) != null ) {
+    			return false;
+    		}
+    	}
+    	return true;
+    }
+
+    /**
+     * Brings the data of the query mode up to date after a removal that could not be applied to it
+     * directly, by running the precomputation again if it had been run
+     */
+    private void refreshPrecomputation() {
+    	if ( dist != null || pathStore != null || landmarkOracle != null ) {
+    		dist = null;
+    		shortestPathPrecomputation();
+    	}
+    }
+
+    /**
+     * Builds the landmark oracle, from the words given to {@link #setLandmarks(String...)} if any,
+     * otherwise from landmarks chosen automatically
+     */
+    private void precomputeLandmarks() {
+    	int[] landmarks;
+    	if ( landmarkWords != null ) {
+    		landmarks = new int[landmarkWords.length];
+    		int count = 0;
+    		for ( String word : landmarkWords ) {
+    			int id = graph.indexOf(word.toUpperCase());
+    			if ( id != -1 ) {
+    				landmarks[count++] = id;
+    			}
+    		}
+    		landmarks = Arrays.copyOf(landmarks, count);
+    	}
+    	else {
+    		landmarks = LandmarkOracle.chooseLandmarks(graph, landmarkCount);
+    	}
+    	landmarkOracle = new LandmarkOracle(graph, landmarks);
+    	landmarkSearch = landmarkOracle.getAStarSearch();
+    }
+
+    /**
+     * Runs the searches from a range of sources, filling their rows of {@link #dist} and {@link #pred},
+     * or of {@link #pathStore} in {@link QueryMode#COMPACT}
+     * @param first the first source
+     * @param last the source after the last one
+     */
+    private void precompute(int first, int last) {
+    	BreadthFirstSearch search = new BreadthFirstSearch(graph);
+    	if ( pathStore == null ) {
+    		for(int src = first; src < last; src++) {
+    			search.run(src, dist[src], pred[src]);
     		}
+    		return;
+    	}
+
+    	// one row of scratch, compressed into the store after each search
+    	int[] rowDist = new int[graph.getVertexCount()];
+    	int[] rowPred = new int[graph.getVertexCount()];
+    	for(int src = first; src < last; src++) {
+    		Arrays.fill(rowDist, -1);
+    		search.run(src, rowDist, rowPred);
+    		pathStore.setRow(src, rowDist);
+    	}
+    }
+
+    /**
+     * Pairs of a call to {@link #getShortestPaths(Collection, PathConsumer)}, grouped by second word
+     */
+    private static class BatchQuery {
+
+    	private List<Map.Entry<String, String>> entries;
+    	private int[] ids1;
+    	private int[] order;
+    	private int[] groupStarts;
+    	private int[] roots;
+    	private PathConsumer consumer;
+    	// whether the rows of the precomputed tables are used instead of searching
+    	private boolean tables;
+
+    	/**
+    	 * @param entries the pairs
+    	 * @param ids1 the id of the first word of each pair
+    	 * @param order indexes of the pairs, sorted by the id of their second word
+    	 * @param groupStarts the position in order of the first pair of each second word
+    	 * @param roots the distinct second words
+    	 * @param consumer receives the path of each pair
+    	 * @param tables whether the rows of the precomputed tables are used instead of searching
+    	 */
+    	BatchQuery(List<Map.Entry<String, String>> entries, int[] ids1, int[] order, int[] groupStarts, int[] roots,
+    			PathConsumer consumer, boolean tables) {
+    		this.entries = entries;
+    		this.ids1 = ids1;
+    		this.order = order;
+    		this.groupStarts = groupStarts;
+    		this.roots = roots;
+    		this.consumer = consumer;
+    		this.tables = tables;
+    	}
+    }
+
+    /**
+     * Answers the pairs of a range of second words, splitting the range in half until it is small enough
+     * for one thread. Each thread searches with its own scratch rows, unless the precomputed tables hold
+     * the rows already.
+     */
+    private class BatchTask extends RecursiveAction {
+
+    	private static final long serialVersionUID = 1L;
+    	// number of second words searched from by one task
+    	private static final int ROOTS_PER_TASK = 16;
+
+    	private BatchQuery query;
+    	private int first;
+    	private int last;
+
+    	/**
+    	 * @param query the pairs
+    	 * @param first the first second word of the range, an index in the roots of the query
+    	 * @param last the second word after the range
+    	 */
+    	BatchTask(BatchQuery query, int first, int last) {
+    		this.query = query;
+    		this.first = first;
+    		this.last = last;
+    	}
+
+    	@Override
+    	protected void compute() {
+    		if ( last - first > ROOTS_PER_TASK ) {
+    			int middle = (first + last) >>> 1;
+    			invokeAll(new BatchTask(query, first, middle), new BatchTask(query, middle, last));
+    			return;
+    		}
+
+    		boolean tables = query.tables;
+    		BreadthFirstSearch search = tables ? null : new BreadthFirstSearch(graph);
+    		int[] rowDist = tables ? null : new int[graph.getVertexCount()];
+    		int[] rowPred = tables ? null : new int[graph.getVertexCount()];
+    		for ( int r = first; r < last; r++ ) {
+    			int root = query.roots[r];
+    			if ( tables ) {
+    				rowDist = dist[root];
+    				rowPred = pred[root];
+    			}
+    			else {
+    				Arrays.fill(rowDist, -1);
+    				search.run(root, rowDist, rowPred);
+    			}
+
+    			// like the precomputed tables, an unreachable word2 gives a path of only word1
+    			for ( int i = query.groupStarts[root]; i < query.groupStarts[root + 1]; i++ ) {
+    				int pair = query.order[i];
+    				List<String> path = new ArrayList<>();
+    				int id = query.ids1[pair];
+    				if ( rowDist[id] == -1 ) {
+    					path.add(wordIndex.lowercase(id));
+    				}
+    				else {
+    					while ( id != -1 ) {
+    						path.add(wordIndex.lowercase(id));
+    						id = rowPred[id];
+    					}
+    				}
+    				Map.Entry<String, String> entry = query.entries.get(pair);
+    				query.consumer.accept(entry.getKey(), entry.getValue(), path);
+    			}
+    		}
+    	}
+    }
+
+    /**
+     * Runs the searches from a range of sources, splitting the range in half until it is small enough
+     * for one thread. Each thread gets its own search, with its own scratch arrays, and writes only
+     * the rows of its own sources.
+     */
+    private class PrecomputationTask extends RecursiveAction {
+
+    	private static final long serialVersionUID = 1L;
+    	// number of sources searched by one task
+    	private static final int SOURCES_PER_TASK = 16;
+
+    	private int first;
+    	private int last;
+
+    	/**
+    	 * @param first the first source of the range
+    	 * @param last the source after the range
+    	 */
+    	PrecomputationTask(int first, int last) {
+    		this.first = first;
+    		this.last = last;
+    	}
+
+    	@Override
+    	protected void compute() {
+    		if ( last - first > SOURCES_PER_TASK ) {
+    			int middle = (first + last) >>> 1;
+    			invokeAll(new PrecomputationTask(first, middle), new PrecomputationTask(middle, last));
+    			return;
+    		}
+
+    		precompute(first, last);
     	}
     }
 }
@@ -1,7 +1,23 @@
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -265,4 +281,999 @@ public class GraphProcessorTest {
 		gp.shortestPathPrecomputation();
 		assertEquals(gp.getShortestDistance(word1, word2), distance);
 	}
+
+	/**
+	 * A graph stored as an adjacency matrix should give the same paths as one stored in adjacency lists
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void matrixStorageMatchesSparseStorage() throws IOException {
+		GraphProcessor matrix = new GraphProcessor(Graph.Storage.MATRIX);
+		matrix.populateGraph("file.txt");
+		matrix.shortestPathPrecomputation();
+		gp.populateGraph("file.txt");
+		gp.shortestPathPrecomputation();
+		assertEquals(matrix.getShortestPath("rapine", "patties"), gp.getShortestPath("rapine", "patties"));
+		assertEquals(matrix.getShortestDistance("comedo", "charge"), gp.getShortestDistance("comedo", "charge"));
+	}
+
+	/**
+	 * The bucketed edge builder should add exactly the edges found by comparing every pair of words,
+	 * also when a second file is added to the graph
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void bucketedEdgesMatchPairwiseEdges() throws IOException {
+		GraphProcessor pairwise = new GraphProcessor();
+		pairwise.setEdgeBuilder(GraphProcessor.EdgeBuilder.PAIRWISE);
+		pairwise.populateGraph("file.txt");
+		pairwise.populateGraph("filetwo.txt");
+		gp.setEdgeBuilder(GraphProcessor.EdgeBuilder.BUCKETED);
+		gp.populateGraph("file.txt");
+		gp.populateGraph("filetwo.txt");
+		assertSameEdges(pairwise.getGraph(), gp.getGraph());
+	}
+
+	/**
+	 * The parallel edge builder should add exactly the edges of the sequential build, for any number of threads
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void parallelEdgesMatchSequentialEdges() throws IOException {
+		gp.setEdgeBuilder(GraphProcessor.EdgeBuilder.PAIRWISE);
+		gp.populateGraph("file.txt");
+		gp.populateGraph("filetwo.txt");
+		for ( int parallelism = 1; parallelism <= 4; parallelism++ ) {
+			GraphProcessor parallel = new GraphProcessor();
+			parallel.setEdgeBuilder(GraphProcessor.EdgeBuilder.PARALLEL);
+			parallel.setParallelism(parallelism);
+			assertEquals(Integer.valueOf(427), parallel.populateGraph("file.txt"));
+			assertEquals(Integer.valueOf(429), parallel.populateGraph("filetwo.txt"));
+			assertSameEdges(gp.getGraph(), parallel.getGraph());
+			parallel.shutdown();
+		}
+	}
+
+	/**
+	 * The word arena should hold each distinct word of the file once, in order, split like the loaders of
+	 * populateGraph, and skip words that are not ASCII
+	 * @throws IOException if file can not be written or read
+	 */
+	@Test
+	public final void wordArenaMatchesLoaders() throws IOException {
+		List<String> words = WordProcessor.getWordStream("file.txt").distinct().collect(Collectors.toList());
+		WordArena arena = WordProcessor.getWordArena("file.txt");
+		assertEquals(427, arena.size());
+		assertEquals(words.size(), arena.size());
+		for ( int id = 0; id < arena.size(); id++ ) {
+			assertEquals(words.get(id), arena.getWord(id));
+			assertEquals(id, arena.indexOf(words.get(id)));
+			assertEquals(id, arena.add(words.get(id)));
+		}
+		assertEquals(-1, arena.indexOf("NOTAWORD"));
+
+		File file = File.createTempFile("words", ".txt");
+		file.deleteOnExit();
+		Files.write(file.toPath(), "cat\thAt  rat\r\ncaf\u00e9\n\ncat dog".getBytes(StandardCharsets.UTF_8));
+		arena = WordProcessor.getWordArena(file.getPath());
+		List<String> arenaWords = new ArrayList<>();
+		for ( int id = 0; id < arena.size(); id++ ) {
+			arenaWords.add(arena.getWord(id));
+		}
+		assertEquals(Arrays.asList("CAT", "HAT", "RAT", "DOG"), arenaWords);
+		try {
+			arena.add("CAF\u00c9");
+			assertTrue("added a word that is not ASCII", false);
+		}
+		catch ( IllegalArgumentException e ) {
+			assertEquals(4, arena.size());
+		}
+	}
+
+	/**
+	 * The memory-mapped word loader should build the same graph as the stream loader
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void mappedLoaderMatchesStreamLoader() throws IOException {
+		GraphProcessor mapped = new GraphProcessor();
+		mapped.setWordLoader(GraphProcessor.WordLoader.MAPPED);
+		assertEquals(gp.populateGraph("file.txt"), mapped.populateGraph("file.txt"));
+		assertEquals(gp.populateGraph("filetwo.txt"), mapped.populateGraph("filetwo.txt"));
+		assertSameEdges(gp.getGraph(), mapped.getGraph());
+	}
+
+	/**
+	 * The memory-mapped word loader should trim, uppercase and drop empty words
+	 * @throws IOException if file can not be written or read
+	 */
+	@Test
+	public final void mappedLoaderTrimsAndUppercases() throws IOException {
+		File file = File.createTempFile("words", ".txt");
+		file.deleteOnExit();
+		Files.write(file.toPath(), "  cat\r\n\r\nHat rat \n\n\tdog\t\nwheat".getBytes(StandardCharsets.US_ASCII));
+		List<String> words = new ArrayList<>();
+		WordProcessor.readWords(file.getPath(), words::add);
+		assertEquals(Arrays.asList("CAT", "HAT", "RAT", "DOG", "WHEAT"), words);
+	}
+
+	/**
+	 * Both word loaders should split a line on tabs, on runs of spaces and before the \r of \r\n line ends,
+	 * without making empty words
+	 * @throws IOException if file can not be written or read
+	 */
+	@Test
+	public final void loadersSplitOnAnyWhitespace() throws IOException {
+		File file = File.createTempFile("words", ".txt");
+		file.deleteOnExit();
+		Files.write(file.toPath(), "cat\thAt  rat\r\n \t \r\n  dog\t\tdot  \ncot\r\n".getBytes(StandardCharsets.US_ASCII));
+		GraphProcessor mapped = new GraphProcessor();
+		mapped.setWordLoader(GraphProcessor.WordLoader.MAPPED);
+		assertEquals(Integer.valueOf(6), gp.populateGraph(file.getPath()));
+		assertEquals(Integer.valueOf(6), mapped.populateGraph(file.getPath()));
+		assertEquals(Arrays.asList("CAT", "HAT", "RAT", "DOG", "DOT", "COT"), gp.getGraph().getAllVertices());
+		assertSameEdges(gp.getGraph(), mapped.getGraph());
+	}
+
+	/**
+	 * On demand queries should give the same paths and distances as the precomputed tables,
+	 * without calling shortestPathPrecomputation
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void onDemandMatchesPrecomputed() throws IOException {
+		gp.populateGraph("file.txt");
+		gp.shortestPathPrecomputation();
+		GraphProcessor onDemand = new GraphProcessor();
+		onDemand.setQueryMode(GraphProcessor.QueryMode.ON_DEMAND);
+		onDemand.populateGraph("file.txt");
+		assertEquals(Integer.valueOf(41), onDemand.getShortestDistance("rapine", "giblets"));
+		assertEquals(gp.getShortestPath("rapine", "patties"), onDemand.getShortestPath("rapine", "patties"));
+		assertPathsMatch(gp, onDemand, WordProcessor.getWordStream("file.txt").limit(60).collect(Collectors.toList()));
+		assertEquals(Integer.valueOf(-1), onDemand.getShortestDistance("rapine", "zzzz"));
+		assertTrue(onDemand.getShortestPath("zzzz", "rapine").isEmpty());
+	}
+
+	/**
+	 * Bidirectional queries should give the same distances as the precomputed tables, and paths of that
+	 * length between the two words where each word is adjacent to the next
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void bidirectionalMatchesPrecomputed() throws IOException {
+		gp.populateGraph("file.txt");
+		gp.shortestPathPrecomputation();
+		GraphProcessor bidirectional = new GraphProcessor();
+		bidirectional.setQueryMode(GraphProcessor.QueryMode.BIDIRECTIONAL);
+		bidirectional.populateGraph("file.txt");
+		assertEquals(Integer.valueOf(41), bidirectional.getShortestDistance("rapine", "giblets"));
+		assertEquals(Integer.valueOf(49), bidirectional.getShortestDistance("comedo", "charge"));
+		assertShortestPathsValid(gp, bidirectional, WordProcessor.getWordStream("file.txt").limit(60).collect(Collectors.toList()));
+	}
+
+	/**
+	 * The parallel precomputation should give the same paths and distances as the sequential one
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void parallelPrecomputationMatchesSequential() throws IOException {
+		gp.populateGraph("file.txt");
+		gp.populateGraph("filetwo.txt");
+		gp.shortestPathPrecomputation();
+		GraphProcessor parallel = new GraphProcessor();
+		parallel.setParallelPrecomputation(true);
+		parallel.setParallelism(4);
+		parallel.populateGraph("file.txt");
+		parallel.populateGraph("filetwo.txt");
+		parallel.shortestPathPrecomputation();
+		parallel.shutdown();
+		List<String> words = new ArrayList<>();
+		for ( String word : gp.getGraph().getAllVertices() ) {
+			words.add(word);
+		}
+		assertPathsMatch(gp, parallel, words);
+	}
+
+	/**
+	 * The compact path store should give the same distances as the precomputed tables, with or without
+	 * the lower triangle and in parallel, and valid shortest paths
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void compactMatchesPrecomputed() throws IOException {
+		gp.populateGraph("file.txt");
+		gp.shortestPathPrecomputation();
+		List<String> words = WordProcessor.getWordStream("file.txt").limit(80).collect(Collectors.toList());
+		for ( int variant = 0; variant < 3; variant++ ) {
+			GraphProcessor compact = new GraphProcessor();
+			compact.setQueryMode(GraphProcessor.QueryMode.COMPACT);
+			compact.setUpperTriangleOnly(variant > 0);
+			compact.setParallelPrecomputation(variant == 2);
+			compact.populateGraph("file.txt");
+			compact.shortestPathPrecomputation();
+			assertEquals(Integer.valueOf(41), compact.getShortestDistance("rapine", "giblets"));
+			assertShortestPathsValid(gp, compact, words);
+		}
+	}
+
+	/**
+	 * Landmark guided A* should give the same distances as the precomputed tables and valid shortest paths,
+	 * with landmarks chosen automatically or given by the user, and distance bounds around the real distance
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void landmarkMatchesPrecomputed() throws IOException {
+		gp.populateGraph("file.txt");
+		gp.shortestPathPrecomputation();
+		List<String> words = WordProcessor.getWordStream("file.txt").limit(80).collect(Collectors.toList());
+		for ( int variant = 0; variant < 2; variant++ ) {
+			GraphProcessor landmark = new GraphProcessor();
+			landmark.setQueryMode(GraphProcessor.QueryMode.LANDMARK);
+			if ( variant == 0 ) {
+				landmark.setLandmarkCount(4);
+			}
+			else {
+				landmark.setLandmarks("rapine", "giblets", "unity", "notaword");
+			}
+			landmark.populateGraph("file.txt");
+			landmark.shortestPathPrecomputation();
+			assertEquals(Integer.valueOf(41), landmark.getShortestDistance("rapine", "giblets"));
+			assertShortestPathsValid(gp, landmark, words);
+
+			for ( String word1 : words ) {
+				for ( String word2 : words ) {
+					int distance = gp.getShortestDistance(word1, word2);
+					int[] bounds = landmark.getShortestDistanceBounds(word1, word2);
+					if ( distance > 0 ) {
+						assertTrue(word1 + " to " + word2, bounds[0] <= distance);
+						assertTrue(word1 + " to " + word2, bounds[1] == -1 || bounds[1] >= distance);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * A* guided by the edit distance should give the same distances as the precomputed tables and valid
+	 * shortest paths, without precomputation, and never expand more vertices than a full search reaches
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void aStarMatchesPrecomputed() throws IOException {
+		gp.populateGraph("file.txt");
+		gp.shortestPathPrecomputation();
+		GraphProcessor aStar = new GraphProcessor();
+		aStar.setQueryMode(GraphProcessor.QueryMode.ASTAR);
+		aStar.populateGraph("file.txt");
+		aStar.shortestPathPrecomputation();
+		List<String> words = WordProcessor.getWordStream("file.txt").limit(80).collect(Collectors.toList());
+		assertEquals(Integer.valueOf(41), aStar.getShortestDistance("rapine", "giblets"));
+		assertShortestPathsValid(gp, aStar, words);
+
+		Graph<String> graph = aStar.getGraph();
+		AStarSearch search = new AStarSearch(graph, new EditDistanceHeuristic(graph));
+		int source = graph.indexOf("RAPINE");
+		int[] dist = new int[graph.getVertexCount()];
+		Arrays.fill(dist, -1);
+		int reached = new BreadthFirstSearch(graph).run(source, dist, new int[dist.length]);
+		assertEquals(41, search.search(source, graph.indexOf("GIBLETS")));
+		assertTrue(search.getExpandedCount() <= reached);
+	}
+
+	/**
+	 * The edit distance heuristic counts substitutions, additions and deletions
+	 */
+	@Test
+	public final void editDistance() {
+		EditDistanceHeuristic heuristic = new EditDistanceHeuristic(new Graph<>());
+		assertEquals(0, heuristic.distance("CAT", "CAT"));
+		assertEquals(1, heuristic.distance("CAT", "HAT"));
+		assertEquals(1, heuristic.distance("HEAT", "WHEAT"));
+		assertEquals(2, heuristic.distance("ABCD", "BCDE"));
+		assertEquals(5, heuristic.distance("", "WHEAT"));
+		assertEquals(3, heuristic.distance("KITTEN", "SITTING"));
+		assertEquals(16, heuristic.distance("ABCDEFGHIJKLMNOP", ""));
+	}
+
+	/**
+	 * Updating the tables for the words of a second file should give the same distances as computing
+	 * them again, and valid shortest paths
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void incrementalMatchesFullPrecomputation() throws IOException {
+		GraphProcessor incremental = new GraphProcessor();
+		incremental.setIncrementalPrecomputation(true);
+		incremental.populateGraph("file.txt");
+		incremental.shortestPathPrecomputation();
+		incremental.populateGraph("filetwo.txt");
+		incremental.shortestPathPrecomputation();
+		gp.populateGraph("file.txt");
+		gp.populateGraph("filetwo.txt");
+		gp.shortestPathPrecomputation();
+		List<String> words = WordProcessor.getWordStream("filetwo.txt").collect(Collectors.toList());
+		words.addAll(WordProcessor.getWordStream("file.txt").limit(60).collect(Collectors.toList()));
+		assertShortestPathsValid(gp, incremental, words);
+	}
+
+	/**
+	 * New words that shorten old paths and join components should update the old distances
+	 * @throws IOException if file can not be written or read
+	 */
+	@Test
+	public final void incrementalShortensAndJoinsPaths() throws IOException {
+		File first = File.createTempFile("words", ".txt");
+		first.deleteOnExit();
+		Files.write(first.toPath(), "bat\nbad\nbid\naid\nait\not".getBytes(StandardCharsets.US_ASCII));
+		File second = File.createTempFile("words", ".txt");
+		second.deleteOnExit();
+		Files.write(second.toPath(), "bit\nbot".getBytes(StandardCharsets.US_ASCII));
+
+		gp.setIncrementalPrecomputation(true);
+		gp.populateGraph(first.getPath());
+		gp.shortestPathPrecomputation();
+		assertEquals(Integer.valueOf(4), gp.getShortestDistance("bat", "ait"));
+		assertEquals(Integer.valueOf(-1), gp.getShortestDistance("bat", "ot"));
+		gp.populateGraph(second.getPath());
+		gp.shortestPathPrecomputation();
+		assertEquals(Integer.valueOf(2), gp.getShortestDistance("bat", "ait"));
+		assertEquals(Arrays.asList("ait", "bit", "bat"), gp.getShortestPath("ait", "bat"));
+		assertEquals(Arrays.asList("ot", "bot", "bat"), gp.getShortestPath("ot", "bat"));
+
+		GraphProcessor full = new GraphProcessor();
+		full.populateGraph(first.getPath());
+		full.populateGraph(second.getPath());
+		full.shortestPathPrecomputation();
+		assertShortestPathsValid(full, gp, Arrays.asList("bat", "bad", "bid", "aid", "ait", "ot", "bit", "bot"));
+	}
+
+	/**
+	 * Removing a word should give the same distances as building the graph without it, whether the
+	 * tables are updated in a dynamic processor or computed again in a static one
+	 * @throws IOException if file can not be written or read
+	 */
+	@Test
+	public final void removeWordMatchesRebuiltGraph() throws IOException {
+		List<String> words = WordProcessor.getWordStream("file.txt").collect(Collectors.toList());
+		words.remove("COPING");
+		File file = File.createTempFile("words", ".txt");
+		file.deleteOnExit();
+		Files.write(file.toPath(), words, StandardCharsets.US_ASCII);
+		GraphProcessor rebuilt = new GraphProcessor();
+		rebuilt.populateGraph(file.getPath());
+		rebuilt.shortestPathPrecomputation();
+
+		GraphProcessor dynamic = new GraphProcessor(Graph.Storage.SPARSE, true);
+		for ( GraphProcessor processor : Arrays.asList(gp, dynamic) ) {
+			processor.populateGraph("file.txt");
+			processor.shortestPathPrecomputation();
+			assertTrue(processor.removeWord("coping"));
+			assertFalse(processor.removeWord("coping"));
+			assertEquals(Integer.valueOf(-1), processor.getShortestDistance("rapine", "coping"));
+			assertShortestPathsValid(rebuilt, processor, words.subList(0, 80));
+			assertShortestPathsValid(rebuilt, processor, Arrays.asList("rapine", "roping", "coming", "patties"));
+		}
+	}
+
+	/**
+	 * A removed edge should not be added back when more words are added, by any edge builder, so the
+	 * incremental tables stay correct; a word removed and added again should get all its edges back
+	 * @throws IOException if file can not be written or read
+	 */
+	@Test
+	public final void removedEdgeStaysRemovedAfterPopulate() throws IOException {
+		List<String> words = Arrays.asList("parries", "parties", "patties", "rapine", "homilys", "homily", "giblets");
+		File parties = File.createTempFile("words", ".txt");
+		parties.deleteOnExit();
+		Files.write(parties.toPath(), "parties".getBytes(StandardCharsets.US_ASCII));
+		for ( GraphProcessor.EdgeBuilder edgeBuilder : GraphProcessor.EdgeBuilder.values() ) {
+			GraphProcessor expected = new GraphProcessor();
+			expected.setEdgeBuilder(edgeBuilder);
+			expected.populateGraph("file.txt");
+			expected.removeEdge("parries", "parties");
+			expected.populateGraph("filetwo.txt");
+			expected.shortestPathPrecomputation();
+
+			for ( boolean dynamic : new boolean[] {false, true} ) {
+				GraphProcessor processor = new GraphProcessor(Graph.Storage.SPARSE, dynamic);
+				processor.setEdgeBuilder(edgeBuilder);
+				processor.setIncrementalPrecomputation(true);
+				processor.populateGraph("file.txt");
+				processor.shortestPathPrecomputation();
+				assertTrue(processor.removeEdge("parries", "parties"));
+				processor.populateGraph("filetwo.txt");
+				processor.shortestPathPrecomputation();
+				assertFalse(edgeBuilder + "", processor.getGraph().isAdjacent("PARRIES", "PARTIES"));
+				assertShortestPathsValid(expected, processor, words);
+
+				assertTrue(processor.removeWord("parties"));
+				processor.populateGraph(parties.getPath());
+				processor.shortestPathPrecomputation();
+				assertEquals(edgeBuilder + "", Integer.valueOf(1), processor.getShortestDistance("parries", "parties"));
+			}
+		}
+	}
+
+	/**
+	 * A dynamic processor should keep its tables correct through removed words and edges, and through
+	 * words added back into the freed ids with the incremental precomputation
+	 * @throws IOException if file can not be written or read
+	 */
+	@Test
+	public final void dynamicMatchesFullPrecomputation() throws IOException {
+		GraphProcessor dynamic = new GraphProcessor(Graph.Storage.SPARSE, true);
+		dynamic.setIncrementalPrecomputation(true);
+		for ( GraphProcessor processor : Arrays.asList(gp, dynamic) ) {
+			processor.populateGraph("file.txt");
+			processor.shortestPathPrecomputation();
+			processor.removeWord("coping");
+			processor.removeWord("bullies");
+			processor.removeWord("raving");
+			assertTrue(processor.removeEdge("parries", "parties"));
+			assertFalse(processor.removeEdge("parries", "parties"));
+			assertFalse(processor.removeEdge("rapine", "patties"));
+		}
+		List<String> words = WordProcessor.getWordStream("file.txt").limit(80).collect(Collectors.toList());
+		words.addAll(Arrays.asList("rapine", "ravine", "roping", "coming", "jellies", "bellies", "parries", "parties", "patties"));
+		assertShortestPathsValid(gp, dynamic, words);
+
+		File file = File.createTempFile("words", ".txt");
+		file.deleteOnExit();
+		Files.write(file.toPath(), "coping\nbullies\nraving\nzzz".getBytes(StandardCharsets.US_ASCII));
+		for ( GraphProcessor processor : Arrays.asList(gp, dynamic) ) {
+			assertEquals(Integer.valueOf(428), processor.populateGraph(file.getPath()));
+			processor.shortestPathPrecomputation();
+		}
+		words.addAll(Arrays.asList("coping", "bullies", "raving", "zzz"));
+		assertEquals(428, dynamic.getGraph().getVertexCount());
+		assertEquals(427, dynamic.getGraph().indexOf("ZZZ"));
+		assertShortestPathsValid(gp, dynamic, words);
+		assertEquals(Integer.valueOf(-1), dynamic.getShortestDistance("rapine", "zzz"));
+	}
+
+	/**
+	 * A snapshot should load back the same graph and distances, with or without a distance table
+	 * @throws IOException if file can not be written or read
+	 */
+	@Test
+	public final void snapshotRoundTrip() throws IOException {
+		gp.populateGraph("file.txt");
+		gp.shortestPathPrecomputation();
+		File file = File.createTempFile("graph", ".snapshot");
+		file.deleteOnExit();
+		gp.saveSnapshot(file.getPath());
+		GraphProcessor loaded = GraphProcessor.loadSnapshot(file.getPath());
+		assertSameEdges(gp.getGraph(), loaded.getGraph());
+		List<String> words = WordProcessor.getWordStream("file.txt").limit(80).collect(Collectors.toList());
+		assertShortestPathsValid(gp, loaded, words);
+		assertEquals(Integer.valueOf(41), loaded.getShortestDistance("rapine", "giblets"));
+
+		// words added after loading are connected to the loaded ones
+		assertEquals(Integer.valueOf(429), loaded.populateGraph("filetwo.txt"));
+		loaded.shortestPathPrecomputation();
+		gp.populateGraph("filetwo.txt");
+		gp.shortestPathPrecomputation();
+		assertSameEdges(gp.getGraph(), loaded.getGraph());
+
+		GraphProcessor onDemand = new GraphProcessor();
+		onDemand.setQueryMode(GraphProcessor.QueryMode.ON_DEMAND);
+		onDemand.populateGraph("file.txt");
+		onDemand.saveSnapshot(file.getPath());
+		loaded = GraphProcessor.loadSnapshot(file.getPath());
+		loaded.shortestPathPrecomputation();
+		assertShortestPathsValid(onDemand, loaded, words);
+	}
+
+	/**
+	 * A snapshot of a dynamic processor leaves out the ids freed by removed words, and keeps the order of words
+	 * @throws IOException if file can not be written or read
+	 */
+	@Test
+	public final void snapshotOfDynamicGraph() throws IOException {
+		GraphProcessor dynamic = new GraphProcessor(Graph.Storage.SPARSE, true);
+		dynamic.setQueryMode(GraphProcessor.QueryMode.COMPACT);
+		dynamic.populateGraph("file.txt");
+		dynamic.removeWord("coping");
+		dynamic.removeWord("rapine");
+		dynamic.shortestPathPrecomputation();
+		File file = File.createTempFile("graph", ".snapshot");
+		file.deleteOnExit();
+		dynamic.saveSnapshot(file.getPath());
+
+		GraphProcessor loaded = GraphProcessor.loadSnapshot(file.getPath());
+		assertEquals(425, loaded.getGraph().getVertexCount());
+		assertEquals(-1, loaded.getGraph().indexOf("RAPINE"));
+		List<String> words = WordProcessor.getWordStream("file.txt").limit(80).collect(Collectors.toList());
+		words.removeAll(Arrays.asList("COPING", "RAPINE"));
+		assertShortestPathsValid(dynamic, loaded, words);
+
+		// words given the freed ids keep their place in the order of words; neighbors come in id order,
+		// which renumbering changes
+		dynamic.populateGraph("filetwo.txt");
+		dynamic.shortestPathPrecomputation();
+		dynamic.saveSnapshot(file.getPath());
+		Graph<String> graph = GraphProcessor.loadSnapshot(file.getPath()).getGraph();
+		assertEquals(dynamic.getGraph().getAllVertices(), graph.getAllVertices());
+		for ( String vertex : graph.getAllVertices() ) {
+			Set<String> neighbors = new HashSet<>();
+			dynamic.getGraph().getNeighbors(vertex).forEach(neighbors::add);
+			Set<String> loadedNeighbors = new HashSet<>();
+			graph.getNeighbors(vertex).forEach(loadedNeighbors::add);
+			assertEquals("neighbors of " + vertex, neighbors, loadedNeighbors);
+		}
+	}
+
+	/**
+	 * A loaded snapshot should keep the storage, the dynamic setting and the removed edges of the saved processor,
+	 * so no edge builder adds a removed edge back when more words are added
+	 * @throws IOException if file can not be written or read
+	 */
+	@Test
+	public final void snapshotKeepsRemovedEdges() throws IOException {
+		File file = File.createTempFile("graph", ".snapshot");
+		file.deleteOnExit();
+		for ( GraphProcessor.EdgeBuilder builder : GraphProcessor.EdgeBuilder.values() ) {
+			GraphProcessor processor = new GraphProcessor(Graph.Storage.BITSET, true);
+			processor.setEdgeBuilder(builder);
+			processor.setQueryMode(GraphProcessor.QueryMode.ON_DEMAND);
+			processor.populateGraph("file.txt");
+			assertTrue(processor.removeEdge("rapine", "ravine"));
+			processor.saveSnapshot(file.getPath());
+
+			GraphProcessor loaded = GraphProcessor.loadSnapshot(file.getPath());
+			assertEquals(Graph.Storage.BITSET, loaded.getGraph().getStorage());
+			assertTrue(loaded.getGraph().hasStableIds());
+			loaded.setEdgeBuilder(builder);
+			loaded.populateGraph("file.txt");
+			loaded.populateGraph("filetwo.txt");
+			assertFalse(builder + " added the edge back", loaded.getGraph().isAdjacent("RAPINE", "RAVINE"));
+			processor.populateGraph("filetwo.txt");
+			assertSameEdges(processor.getGraph(), loaded.getGraph());
+		}
+	}
+
+	/**
+	 * Saving after words are added, without running the precomputation again, should write the graph with no
+	 * distances instead of failing on the stale compact store, and leave no temporary file behind
+	 * @throws IOException if file can not be written or read
+	 */
+	@Test
+	public final void snapshotOfStaleStoreHasNoDistances() throws IOException {
+		GraphProcessor compact = new GraphProcessor();
+		compact.setQueryMode(GraphProcessor.QueryMode.COMPACT);
+		compact.populateGraph("file.txt");
+		compact.shortestPathPrecomputation();
+		compact.populateGraph("filetwo.txt");
+		File file = File.createTempFile("graph", ".snapshot");
+		file.deleteOnExit();
+		compact.saveSnapshot(file.getPath());
+		String[] left = file.getAbsoluteFile().getParentFile().list((dir, name) -> name.startsWith(file.getName() + "."));
+		assertEquals(0, left.length);
+
+		GraphProcessor loaded = GraphProcessor.loadSnapshot(file.getPath());
+		assertSameEdges(compact.getGraph(), loaded.getGraph());
+		loaded.setQueryMode(GraphProcessor.QueryMode.COMPACT);
+		loaded.shortestPathPrecomputation();
+		compact.shortestPathPrecomputation();
+		assertEquals(compact.getShortestDistance("homilys", "giblets"), loaded.getShortestDistance("homilys", "giblets"));
+		assertEquals(Integer.valueOf(41), loaded.getShortestDistance("rapine", "giblets"));
+	}
+
+	/**
+	 * Loading a file that is not a snapshot should fail with an IOException
+	 * @throws IOException if file can not be written
+	 */
+	@Test
+	public final void loadSnapshotRejectsOtherFiles() throws IOException {
+		for ( String path : Arrays.asList("file.txt", "filetwo.txt") ) {
+			try {
+				GraphProcessor.loadSnapshot(path);
+				assertTrue("loaded " + path, false);
+			}
+			catch ( IOException e ) {
+				assertTrue(e.getMessage(), e.getMessage().startsWith("not a graph snapshot"));
+			}
+		}
+	}
+
+	/**
+	 * Queries from several threads should match a processor queried from one, with precomputed tables
+	 * and with searches, and neighbor lookups should match the graph
+	 * @throws Exception if file can not be read or a query thread fails
+	 */
+	@Test
+	public final void concurrentQueriesMatchProcessor() throws Exception {
+		gp.populateGraph("file.txt");
+		gp.shortestPathPrecomputation();
+		List<String> words = WordProcessor.getWordStream("file.txt").limit(40).collect(Collectors.toList());
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for ( boolean precomputed : new boolean[] {true, false} ) {
+				ConcurrentGraphProcessor concurrent = new ConcurrentGraphProcessor(precomputed);
+				concurrent.populateGraph("file.txt");
+				List<Future<?>> futures = new ArrayList<>();
+				for ( int thread = 0; thread < 4; thread++ ) {
+					futures.add(executor.submit(() -> {
+						for ( String word1 : words ) {
+							for ( String word2 : words ) {
+								Integer distance = gp.getShortestDistance(word1, word2);
+								assertEquals(distance, concurrent.getShortestDistance(word1, word2));
+								List<String> path = concurrent.getShortestPath(word1, word2);
+								if ( precomputed ) {
+									assertEquals(gp.getShortestPath(word1, word2), path);
+								}
+								else if ( distance > 0 ) {
+									assertEquals(distance + 1, path.size());
+								}
+							}
+						}
+					}));
+				}
+				for ( Future<?> future : futures ) {
+					future.get();
+				}
+				assertEquals(Arrays.asList("repine", "ravine"), concurrent.getNeighbors("rapine"));
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Queries running while words are added should always see a whole snapshot, and the new words once it is published,
+	 * with precomputed tables and with searches
+	 * @throws Exception if file can not be read or a query thread fails
+	 */
+	@Test
+	public final void concurrentQueriesDuringPopulate() throws Exception {
+		// with searches, each thread moves its search from the old graph to the new one
+		for ( boolean precomputed : new boolean[] {true, false} ) {
+			ConcurrentGraphProcessor concurrent = new ConcurrentGraphProcessor(precomputed);
+			concurrent.populateGraph("file.txt");
+			AtomicBoolean done = new AtomicBoolean();
+			ExecutorService executor = Executors.newFixedThreadPool(2);
+			try {
+				List<Future<?>> futures = new ArrayList<>();
+				for ( int thread = 0; thread < 2; thread++ ) {
+					futures.add(executor.submit(() -> {
+						while ( !done.get() ) {
+							assertEquals(Integer.valueOf(41), concurrent.getShortestDistance("rapine", "giblets"));
+							assertEquals(42, concurrent.getShortestPath("rapine", "giblets").size());
+							int homilys = concurrent.getShortestDistance("homilys", "homily");
+							assertTrue(homilys == -1 || homilys == 1);
+						}
+					}));
+				}
+				assertEquals(Integer.valueOf(429), concurrent.populateGraph("filetwo.txt"));
+				done.set(true);
+				for ( Future<?> future : futures ) {
+					future.get();
+				}
+			}
+			finally {
+				executor.shutdown();
+			}
+			assertEquals(Integer.valueOf(1), concurrent.getShortestDistance("homilys", "homily"));
+			assertEquals(Arrays.asList("homily"), concurrent.getNeighbors("homilys"));
+			assertEquals(Arrays.asList("homilys", "homily"), concurrent.getShortestPath("homilys", "homily"));
+			assertTrue(concurrent.getNeighbors("notaword").isEmpty());
+		}
+	}
+
+	/**
+	 * Batched queries should give every pair the same path as a single query on the precomputed tables,
+	 * whether they come from the tables or from one search per second word
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void batchMatchesSingleQueries() throws IOException {
+		gp.populateGraph("file.txt");
+		gp.shortestPathPrecomputation();
+		List<String> words = WordProcessor.getWordStream("file.txt").limit(40).collect(Collectors.toList());
+		words.addAll(Arrays.asList("notaword", "rapine", "Rapine"));
+		List<Map.Entry<String, String>> pairs = new ArrayList<>();
+		for ( String word1 : words ) {
+			for ( String word2 : words ) {
+				pairs.add(new AbstractMap.SimpleImmutableEntry<>(word1, word2));
+			}
+		}
+
+		GraphProcessor onDemand = new GraphProcessor();
+		onDemand.setQueryMode(GraphProcessor.QueryMode.ON_DEMAND);
+		onDemand.populateGraph("file.txt");
+		onDemand.setParallelism(3);
+		for ( GraphProcessor processor : Arrays.asList(gp, onDemand) ) {
+			Map<String, List<String>> paths = new ConcurrentHashMap<>();
+			processor.getShortestPaths(pairs, (word1, word2, path) -> {
+				assertEquals(null, paths.put(word1 + " " + word2, path));
+			});
+			assertEquals(words.size() * words.size(), paths.size());
+			for ( String word1 : words ) {
+				for ( String word2 : words ) {
+					assertEquals(word1 + " to " + word2, gp.getShortestPath(word1, word2), paths.get(word1 + " " + word2));
+				}
+			}
+		}
+
+		// the pool is kept across calls, and after shutdown the common pool takes over
+		for ( int call = 0; call < 2; call++ ) {
+			Map<String, List<String>> paths = new ConcurrentHashMap<>();
+			onDemand.getShortestPaths(pairs, (word1, word2, path) -> paths.put(word1 + " " + word2, path));
+			assertEquals(words.size() * words.size(), paths.size());
+			onDemand.shutdown();
+		}
+	}
+
+	/**
+	 * A path cache should answer repeated and reversed pairs without searching, give valid shortest paths,
+	 * and be cleared when the graph changes
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void pathCacheHitsAndInvalidates() throws IOException {
+		gp.populateGraph("file.txt");
+		gp.shortestPathPrecomputation();
+		GraphProcessor cached = new GraphProcessor();
+		cached.setQueryMode(GraphProcessor.QueryMode.BIDIRECTIONAL);
+		PathCache cache = new PathCache(1000, Long.MAX_VALUE);
+		cached.setPathCache(cache);
+		cached.populateGraph("file.txt");
+		List<String> words = WordProcessor.getWordStream("file.txt").limit(20).collect(Collectors.toList());
+		assertShortestPathsValid(gp, cached, words);
+		assertEquals(20 * 19 / 2, cache.size());
+		assertEquals(20 * 19 / 2, cache.getMisses());
+		assertEquals(2 * 20 * 19 - 20 * 19 / 2, cache.getHits());
+
+		List<String> path = cached.getShortestPath("rapine", "giblets");
+		List<String> reversed = new ArrayList<>(cached.getShortestPath("giblets", "rapine"));
+		Collections.reverse(reversed);
+		assertEquals(path, reversed);
+		assertEquals(Integer.valueOf(41), cached.getShortestDistance("giblets", "rapine"));
+
+		long misses = cache.getMisses();
+		cached.populateGraph("filetwo.txt");
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getBytes());
+		assertEquals(Integer.valueOf(1), cached.getShortestDistance("homilys", "homily"));
+		assertEquals(misses + 1, cache.getMisses());
+	}
+
+	/**
+	 * The path cache should evict the least recently used paths past its entry and byte bounds
+	 */
+	@Test
+	public final void pathCacheEvictsLeastRecentlyUsed() {
+		PathCache cache = new PathCache(2, Long.MAX_VALUE);
+		cache.put(1, 2, new int[] {1, 2});
+		cache.put(4, 3, new int[] {4, 5, 3});
+		assertArrayEquals(new int[] {2, 1}, cache.get(2, 1));
+		cache.put(5, 6, null);
+		assertEquals(2, cache.size());
+		assertEquals(null, cache.get(3, 4));
+		assertArrayEquals(new int[] {1, 2}, cache.get(1, 2));
+		assertEquals(0, cache.get(6, 5).length);
+		assertEquals(3, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		PathCache small = new PathCache(100, 2 * PathCache.ENTRY_BYTES + 20);
+		small.put(0, 1, new int[] {0, 1});
+		small.put(0, 2, new int[] {0, 1, 2});
+		assertEquals(2, small.size());
+		assertEquals(2 * PathCache.ENTRY_BYTES + 20, small.getBytes());
+		small.put(0, 3, new int[] {0, 3});
+		assertEquals(2, small.size());
+		assertEquals(null, small.get(0, 1));
+		small.put(0, 4, new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 4});
+		assertEquals(1, small.size());
+		assertEquals(20, small.get(0, 4).length);
+	}
+
+	/**
+	 * A search tree cache should answer every query from a cached first word without searching, give valid
+	 * shortest paths, keep at most its bound of trees, and be cleared when the graph changes
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void searchTreeCacheAnswersQueriesFromCachedWords() throws IOException {
+		gp.populateGraph("file.txt");
+		gp.shortestPathPrecomputation();
+		GraphProcessor cached = new GraphProcessor();
+		cached.setQueryMode(GraphProcessor.QueryMode.ON_DEMAND);
+		SearchTreeCache cache = new SearchTreeCache(1);
+		cached.setSearchTreeCache(cache);
+		cached.populateGraph("file.txt");
+		List<String> words = WordProcessor.getWordStream("file.txt").limit(20).collect(Collectors.toList());
+		// words are the outer loop, so each is searched from once and its tree answers its 2 * 19 lookups
+		assertShortestPathsValid(gp, cached, words);
+		assertEquals(1, cache.size());
+		assertEquals(6L * cached.getGraph().getVertexCount(), cache.getBytes());
+		assertEquals(20, cache.getMisses());
+		assertEquals(20 * 2 * 19 - 20, cache.getHits());
+		assertEquals(Integer.valueOf(41), cached.getShortestDistance("rapine", "giblets"));
+		assertEquals(42, cached.getShortestPath("rapine", "giblets").size());
+
+		cached.setQueryMode(GraphProcessor.QueryMode.BIDIRECTIONAL);
+		cached.setPathCache(new PathCache(10, Long.MAX_VALUE));
+		assertEquals(42, cached.getShortestPath("rapine", "giblets").size());
+		assertEquals(Integer.valueOf(41), cached.getShortestDistance("giblets", "rapine"));
+
+		cached.populateGraph("filetwo.txt");
+		assertEquals(0, cache.size());
+		assertEquals(Integer.valueOf(1), cached.getShortestDistance("homilys", "homily"));
+		assertEquals(Arrays.asList("toys"), cached.getShortestPath("toys", "homily"));
+		assertEquals(1, cache.size());
+	}
+
+	/**
+	 * Words of queries should be found in any case, give lowercase paths, and be gone once removed
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void queryWordsInAnyCase() throws IOException {
+		gp.populateGraph("file.txt");
+		gp.populateGraph("file.txt");
+		gp.shortestPathPrecomputation();
+		assertEquals(Integer.valueOf(41), gp.getShortestDistance("RAPINE", "Giblets"));
+		assertEquals(Integer.valueOf(-1), gp.getShortestDistance("Rapine", "rapine"));
+		List<String> path = gp.getShortestPath("Rapine", "GIBLETS");
+		assertEquals(gp.getShortestPath("rapine", "giblets"), path);
+		assertEquals("rapine", path.get(0));
+		assertEquals("giblets", path.get(41));
+
+		assertTrue(gp.removeWord("Repine"));
+		assertEquals(Integer.valueOf(-1), gp.getShortestDistance("repine", "rapine"));
+		assertEquals(Collections.emptyList(), gp.getShortestPath("rapine", "repine"));
+		assertEquals(Arrays.asList("rapine", "ravine"), gp.getShortestPath("rapine", "ravine"));
+	}
+
+	/**
+	 * Words that are not ASCII, kept out of the word arena, and words removed and added again should
+	 * be found and written like any other word
+	 * @throws IOException if file can not be written or read
+	 */
+	@Test
+	public final void queryWordsOutsideArena() throws IOException {
+		File file = File.createTempFile("words", ".txt");
+		file.deleteOnExit();
+		Files.write(file.toPath(), "cafe\ncaf\u00e9\nsafe\nsage".getBytes(StandardCharsets.UTF_8));
+		GraphProcessor processor = new GraphProcessor(Graph.Storage.SPARSE, true);
+		processor.setQueryMode(GraphProcessor.QueryMode.ON_DEMAND);
+		processor.populateGraph(file.getPath());
+		assertEquals(Arrays.asList("caf\u00e9", "cafe", "safe", "sage"), processor.getShortestPath("CAF\u00c9", "sage"));
+		StringBuilder text = new StringBuilder();
+		assertEquals(4, processor.getShortestPath("sage", "caf\u00e9", text, " "));
+		assertEquals("sage safe cafe caf\u00e9", text.toString());
+
+		assertTrue(processor.removeWord("safe"));
+		assertEquals(Arrays.asList("cafe"), processor.getShortestPath("cafe", "sage"));
+		assertEquals(Collections.emptyList(), processor.getShortestPath("safe", "sage"));
+		processor.populateGraph(file.getPath());
+		assertEquals(Arrays.asList("cafe", "safe", "sage"), processor.getShortestPath("cafe", "sage"));
+		assertEquals(Arrays.asList("safe", "sage"), processor.getShortestPath("safe", "Sage"));
+	}
+
+	/**
+	 * Paths written as ids, passed to a consumer or appended as text should be the lists of words of
+	 * getShortestPath, in every query mode
+	 * @throws IOException if file can not be read
+	 */
+	@Test
+	public final void streamedPathsMatchLists() throws IOException {
+		List<String> words = WordProcessor.getWordStream("file.txt").limit(20).collect(Collectors.toList());
+		words.add("notaword");
+		gp.populateGraph("file.txt");
+		gp.populateGraph("filetwo.txt");
+		int[] ids = new int[64];
+		StringBuilder text = new StringBuilder();
+		for ( GraphProcessor.QueryMode mode : GraphProcessor.QueryMode.values() ) {
+			gp.setQueryMode(mode);
+			gp.shortestPathPrecomputation();
+			for ( String word1 : words ) {
+				for ( String word2 : words ) {
+					List<String> path = gp.getShortestPath(word1, word2);
+					assertEquals(path.size(), gp.getShortestPath(word1, word2, ids));
+					List<String> fromIds = new ArrayList<>();
+					for ( int i = 0; i < path.size(); i++ ) {
+						fromIds.add(gp.getWord(ids[i]));
+					}
+					assertEquals(mode + " " + word1 + " to " + word2, path, fromIds);
+
+					List<String> consumed = new ArrayList<>();
+					assertEquals(path.size(), gp.getShortestPath(word1, word2, id -> consumed.add(gp.getWord(id))));
+					assertEquals(path, consumed);
+
+					text.setLength(0);
+					assertEquals(path.size(), gp.getShortestPath(word1, word2, text, " "));
+					assertEquals(String.join(" ", path), text.toString());
+				}
+			}
+		}
+
+		gp.setQueryMode(GraphProcessor.QueryMode.PRECOMPUTED);
+		gp.shortestPathPrecomputation();
+		int[] shortIds = new int[3];
+		assertEquals(42, gp.getShortestPath("rapine", "giblets", shortIds));
+		assertEquals(Arrays.asList("rapine", "ravine"), gp.getShortestPath("rapine", "ravine"));
+		assertEquals("rapine", gp.getWord(shortIds[0]));
+		assertEquals(1, gp.getShortestPath("toys", "homily", shortIds));
+		assertEquals("toys", gp.getWord(shortIds[0]));
+	}
+
+	/**
+	 * Distances too long for a byte row should be stored in wider rows
+	 */
+	@Test
+	public final void compactStoreWidensLongRows() {
+		int vertexCount = 700;
+		int[] dist = new int[vertexCount];
+		for ( int i = 0; i < vertexCount; i++ ) {
+			dist[i] = i == vertexCount - 1 ? -1 : i;
+		}
+		CompactPathStore store = new CompactPathStore(vertexCount, false);
+		store.setRow(0, dist);
+		assertEquals(0, store.distance(0, 0));
+		assertEquals(300, store.distance(0, 300));
+		assertEquals(698, store.distance(0, 698));
+		assertEquals(-1, store.distance(0, 699));
+		assertEquals(2L * vertexCount, store.getDistanceBytes());
+	}
+
+	/**
+	 * Checks that a graph processor gives the same distances as another, and paths of that length between
+	 * the two words where each word is adjacent to the next
+	 * @param expected the processor with the expected distances
+	 * @param actual the processor to check
+	 * @param words the words to query
+	 */
+	static void assertShortestPathsValid(GraphProcessor expected, GraphProcessor actual, List<String> words) {
+		for ( String word1 : words ) {
+			for ( String word2 : words ) {
+				Integer distance = expected.getShortestDistance(word1, word2);
+				assertEquals(word1 + " to " + word2, distance, actual.getShortestDistance(word1, word2));
+				List<String> path = actual.getShortestPath(word1, word2);
+				if ( word1.equals(word2) ) {
+					assertTrue(path.isEmpty());
+				}
+				else if ( distance == -1 ) {
+					assertEquals(Arrays.asList(word1.toLowerCase()), path);
+				}
+				else {
+					assertEquals(distance + 1, path.size());
+					assertEquals(word1.toLowerCase(), path.get(0));
+					assertEquals(word2.toLowerCase(), path.get(distance));
+					for ( int i = 0; i < distance; i++ ) {
+						assertTrue(path.toString(), WordProcessor.isAdjacent(path.get(i), path.get(i + 1)));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks that two graph processors give the same paths and distances between every pair of words
+	 * @param expected the expected processor
+	 * @param actual the processor to check
+	 * @param words the words to query
+	 */
+	static void assertPathsMatch(GraphProcessor expected, GraphProcessor actual, List<String> words) {
+		for ( String word2 : words ) {
+			for ( String word1 : words ) {
+				assertEquals(word1 + " to " + word2, expected.getShortestDistance(word1, word2), actual.getShortestDistance(word1, word2));
+				assertEquals(word1 + " to " + word2, expected.getShortestPath(word1, word2), actual.getShortestPath(word1, word2));
+			}
+		}
+	}
+
+	/**
+	 * Checks that two graphs have the same vertices, in the same order, and the same edges
+	 * @param expected the expected graph
+	 * @param actual the graph to check
+	 */
+	static void assertSameEdges(Graph<String> expected, Graph<String> actual) {
+		assertEquals(expected.getAllVertices(), actual.getAllVertices());
+		for ( String vertex : expected.getAllVertices() ) {
+			assertEquals("neighbors of " + vertex, expected.getNeighbors(vertex), actual.getNeighbors(vertex));
+		}
+	}
 }
@@ -0,0 +1,404 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Binary snapshot of a word graph and, optionally, the distances between its words, which can be
+ * loaded back without reading the dictionary, finding edges or precomputing paths.
+ *
+ * The file is big-endian, every section starts on a multiple of 4 bytes:
+ *  - header: magic, version, vertex count V, word byte count B, adjacency entry count A, distance width W,
+ *    edge storage (ordinal of {@link Graph.Storage}), 1 if vertex ids are stable else 0, removed edge count R,
+ *  - words as an arena: V + 1 int offsets into B bytes of UTF-8, word i is bytes offsets[i] to offsets[i + 1] - 1,
+ *  - adjacency in compressed sparse row form: V + 1 int offsets into A int neighbor ids, sorted per vertex,
+ *  - removed edges: R pairs of ids of words whose edge must not be added back,
+ *  - if W is not 0, a V x V table of distance + 1 (0 for no path), W bytes (1, 2 or 4) each, row by row.
+ * Ids are renumbered densely in the order the words were added, so freed ids of a dynamic graph are not
+ * written and a loaded graph lists its words in the same order.
+ *
+ * A snapshot is written to a temporary file next to its path and renamed once complete, so a failed
+ * write never leaves a partial snapshot behind. The distance table is memory-mapped read-only when loaded,
+ * see {@link MappedPathStore}, so it is paged in on demand and processes loading the same snapshot share
+ * one copy in the page cache.
+ */
+class GraphSnapshot {
+
+	// "WLGS", first int of every snapshot
+	static final int MAGIC = 0x574c4753;
+	// version of the format written, bumped on any change to the layout
+	static final int VERSION = 2;
+	// number of ints in the header
+	private static final int HEADER_INTS = 9;
+
+	/**
+	 * Edge storage and id stability of the graph a snapshot was written from
+	 */
+	static final class Settings {
+
+		final Graph.Storage storage;
+		final boolean stableIds;
+
+		/**
+		 * @param storage how the edges of the graph were stored
+		 * @param stableIds whether the graph kept its vertex ids stable
+		 */
+		Settings(Graph.Storage storage, boolean stableIds) {
+			this.storage = storage;
+			this.stableIds = stableIds;
+		}
+	}
+
+	/**
+	 * Writes a snapshot of a graph
+	 *
+	 * @param filepath the file to write
+	 * @param graph the graph
+	 * @param removedEdges the words of each word whose edge to it must not be added back, every edge under
+	 * both of its words; words that are not in the graph are left out
+	 * @param distances gives the distance between two ids of the graph, -1 if there is no path,
+	 * or null to write no distance table
+	 * @throws IOException if the file can not be written
+	 */
+	static void write(String filepath, Graph<String> graph, Map<String, ? extends Collection<String>> removedEdges,
+			IntBinaryOperator distances) throws IOException {
+		Path target = Paths.get(filepath).toAbsolutePath();
+		Path temp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+		boolean written = false;
+		try {
+			try ( OutputStream file = Files.newOutputStream(temp) ) {
+				write(file, graph, removedEdges, distances);
+			}
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch ( AtomicMoveNotSupportedException e ) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+			written = true;
+		}
+		finally {
+			if ( !written ) {
+				Files.deleteIfExists(temp);
+			}
+		}
+	}
+
+	/**
+	 * Writes a snapshot of a graph to a stream, see {@link #write(String, Graph, Map, IntBinaryOperator)}
+	 *
+	 * @param file the stream, left open
+	 * @param graph the graph
+	 * @param removedEdges the removed edges, under both of their words
+	 * @param distances the distances, or null
+	 * @throws IOException if the stream can not be written
+	 */
+	private static void write(OutputStream file, Graph<String> graph, Map<String, ? extends Collection<String>> removedEdges,
+			IntBinaryOperator distances) throws IOException {
+		int idCount = graph.getVertexCount();
+		int[] ids = new int[graph.size()];
+		int[] newIds = new int[idCount];
+		Arrays.fill(newIds, -1);
+		int vertexCount = 0;
+		for ( String word : graph.getAllVertices() ) {
+			int id = graph.indexOf(word);
+			newIds[id] = vertexCount;
+			ids[vertexCount++] = id;
+		}
+
+		byte[][] words = new byte[vertexCount][];
+		int byteCount = 0;
+		int entryCount = 0;
+		int[] neighbors = new int[idCount];
+		for ( int v = 0; v < vertexCount; v++ ) {
+			words[v] = graph.getVertex(ids[v]).getBytes(StandardCharsets.UTF_8);
+			byteCount += words[v].length;
+			entryCount += graph.getNeighborIds(ids[v], neighbors);
+		}
+
+		// each removed edge is written once, from its smaller end
+		int[] removed = new int[16];
+		int removedLength = 0;
+		for ( Map.Entry<String, ? extends Collection<String>> entry : removedEdges.entrySet() ) {
+			int id1 = graph.indexOf(entry.getKey());
+			for ( String word : entry.getValue() ) {
+				int id2 = graph.indexOf(word);
+				if ( id1 != -1 && id2 != -1 && newIds[id1] < newIds[id2] ) {
+					if ( removedLength + 2 > removed.length ) {
+						removed = Arrays.copyOf(removed, removed.length * 2);
+					}
+					removed[removedLength++] = newIds[id1];
+					removed[removedLength++] = newIds[id2];
+				}
+			}
+		}
+
+		int width = 0;
+		if ( distances != null ) {
+			int max = 0;
+			for ( int v1 = 0; v1 < vertexCount; v1++ ) {
+				for ( int v2 = 0; v2 < vertexCount; v2++ ) {
+					max = Math.max(max, distances.applyAsInt(ids[v1], ids[v2]));
+				}
+			}
+			width = max + 1 <= 0xff ? 1 : max + 1 <= 0xffff ? 2 : 4;
+		}
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(vertexCount);
+		out.writeInt(byteCount);
+		out.writeInt(entryCount);
+		out.writeInt(width);
+		out.writeInt(graph.getStorage().ordinal());
+		out.writeInt(graph.hasStableIds() ? 1 : 0);
+		out.writeInt(removedLength / 2);
+
+		int offset = 0;
+		for ( int v = 0; v < vertexCount; v++ ) {
+			out.writeInt(offset);
+			offset += words[v].length;
+		}
+		out.writeInt(offset);
+		for ( byte[] word : words ) {
+			out.write(word);
+		}
+		out.write(new byte[padding(byteCount)]);
+
+		offset = 0;
+		for ( int v = 0; v < vertexCount; v++ ) {
+			out.writeInt(offset);
+			offset += graph.getNeighborIds(ids[v], neighbors);
+		}
+		out.writeInt(offset);
+		for ( int v = 0; v < vertexCount; v++ ) {
+			// renumbering can change the order of neighbors, so they are sorted again
+			int degree = graph.getNeighborIds(ids[v], neighbors);
+			for ( int i = 0; i < degree; i++ ) {
+				neighbors[i] = newIds[neighbors[i]];
+			}
+			Arrays.sort(neighbors, 0, degree);
+			for ( int i = 0; i < degree; i++ ) {
+				out.writeInt(neighbors[i]);
+			}
+		}
+
+		for ( int i = 0; i < removedLength; i++ ) {
+			out.writeInt(removed[i]);
+		}
+
+		for ( int v1 = 0; v1 < vertexCount && width != 0; v1++ ) {
+			for ( int v2 = 0; v2 < vertexCount; v2++ ) {
+				int value = distances.applyAsInt(ids[v1], ids[v2]) + 1;
+				if ( width == 1 ) {
+					out.writeByte(value);
+				}
+				else if ( width == 2 ) {
+					out.writeShort(value);
+				}
+				else {
+					out.writeInt(value);
+				}
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Reads the settings of the graph a snapshot was written from, so that a graph like it can be made
+	 * for {@link #read(String, Graph, BiConsumer)}
+	 *
+	 * @param filepath the file to read
+	 * @return the settings
+	 * @throws IOException if the file can not be read, or is not a snapshot of a version this class reads
+	 */
+	static Settings readSettings(String filepath) throws IOException {
+		try ( FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ) ) {
+			IntBuffer header = readHeader(channel, filepath);
+			return new Settings(Graph.Storage.values()[header.get(6)], header.get(7) == 1);
+		}
+	}
+
+	/**
+	 * Reads a snapshot into an empty graph
+	 *
+	 * @param filepath the file to read
+	 * @param graph the graph, which must be empty, receives the words and edges
+	 * @param removedEdges receives the two words of each removed edge
+	 * @return the distance table, mapped read-only, or null if the snapshot has none
+	 * @throws IOException if the file can not be read, or is not a snapshot of a version this class reads
+	 */
+	static MappedPathStore read(String filepath, Graph<String> graph, BiConsumer<String, String> removedEdges) throws IOException {
+		try ( FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ) ) {
+			long size = channel.size();
+			IntBuffer header = readHeader(channel, filepath);
+			int vertexCount = header.get(2);
+			int byteCount = header.get(3);
+			int entryCount = header.get(4);
+			int width = header.get(5);
+			int removedCount = header.get(8);
+
+			long wordsStart = 4 * HEADER_INTS;
+			long adjacencyStart = wordsStart + 4L * (vertexCount + 1) + byteCount + padding(byteCount);
+			long removedStart = adjacencyStart + 4L * (vertexCount + 1) + 4L * entryCount;
+			long tableStart = removedStart + 8L * removedCount;
+			long tableSize = (long) vertexCount * vertexCount * width;
+			if ( size != tableStart + tableSize ) {
+				throw new IOException("truncated graph snapshot: " + filepath);
+			}
+
+			MappedByteBuffer words = channel.map(FileChannel.MapMode.READ_ONLY, wordsStart, adjacencyStart - wordsStart);
+			IntBuffer wordOffsets = words.asIntBuffer();
+			byte[] bytes = new byte[byteCount];
+			words.position(4 * (vertexCount + 1));
+			words.get(bytes);
+			for ( int v = 0; v < vertexCount; v++ ) {
+				int start = wordOffsets.get(v);
+				graph.addVertex(new String(bytes, start, wordOffsets.get(v + 1) - start, StandardCharsets.UTF_8));
+			}
+
+			// each edge is listed from both ends, it is added from its smaller end
+			IntBuffer adjacency = channel.map(FileChannel.MapMode.READ_ONLY, adjacencyStart, removedStart - adjacencyStart).asIntBuffer();
+			int[] edgeIds = new int[entryCount];
+			int length = 0;
+			for ( int v = 0; v < vertexCount; v++ ) {
+				int end = adjacency.get(v + 1);
+				for ( int i = adjacency.get(v); i < end; i++ ) {
+					int neighbor = adjacency.get(vertexCount + 1 + i);
+					if ( neighbor > v ) {
+						edgeIds[length++] = v;
+						edgeIds[length++] = neighbor;
+					}
+				}
+			}
+			graph.addEdges(edgeIds, length);
+
+			IntBuffer removed = channel.map(FileChannel.MapMode.READ_ONLY, removedStart, tableStart - removedStart).asIntBuffer();
+			for ( int i = 0; i < 2 * removedCount; i += 2 ) {
+				removedEdges.accept(graph.getVertex(removed.get(i)), graph.getVertex(removed.get(i + 1)));
+			}
+
+			if ( width == 0 ) {
+				return null;
+			}
+			return new MappedPathStore(channel, tableStart, vertexCount, width);
+		}
+	}
+
+	/**
+	 * Reads and checks the header of a snapshot
+	 *
+	 * @param channel the open snapshot file
+	 * @param filepath the path of the file, for error messages
+	 * @return the ints of the header
+	 * @throws IOException if the file is not a snapshot of a version this class reads
+	 */
+	private static IntBuffer readHeader(FileChannel channel, String filepath) throws IOException {
+		if ( channel.size() < 4 * 2 ) {
+			throw new IOException("not a graph snapshot: " + filepath);
+		}
+		IntBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 4 * 2).asIntBuffer();
+		if ( header.get(0) != MAGIC ) {
+			throw new IOException("not a graph snapshot: " + filepath);
+		}
+		if ( header.get(1) != VERSION ) {
+			throw new IOException("unsupported graph snapshot version " + header.get(1) + ": " + filepath);
+		}
+		if ( channel.size() < 4 * HEADER_INTS ) {
+			throw new IOException("truncated graph snapshot: " + filepath);
+		}
+		header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 4 * HEADER_INTS).asIntBuffer();
+		int storage = header.get(6);
+		if ( storage < 0 || storage >= Graph.Storage.values().length ) {
+			throw new IOException("unknown edge storage " + storage + " in graph snapshot: " + filepath);
+		}
+		return header;
+	}
+
+	/**
+	 * Gets the number of zero bytes after a section so the next one starts on a multiple of 4
+	 *
+	 * @param length the length of the section in bytes
+	 * @return the number of padding bytes
+	 */
+	private static int padding(int length) {
+		return -length & 3;
+	}
+
+	/**
+	 * Distance table of a snapshot, read straight from the memory-mapped file. The table is mapped in
+	 * windows of whole rows, so it can be larger than one buffer. Nothing is copied onto the heap, and
+	 * the mapping stays valid after the file is closed.
+	 */
+	static class MappedPathStore extends CompactPathStore {
+
+		// largest number of bytes mapped by one window
+		private static final long WINDOW_SIZE = 1L << 30;
+
+		private int vertexCount;
+		private int width;
+		private int rowsPerWindow;
+		private ByteBuffer[] windows;
+
+		/**
+		 * @param channel the open snapshot file
+		 * @param start position of the table in the file
+		 * @param vertexCount the number of vertices
+		 * @param width the number of bytes per distance
+		 * @throws IOException if the table can not be mapped
+		 */
+		MappedPathStore(FileChannel channel, long start, int vertexCount, int width) throws IOException {
+			super(0, false);
+			this.vertexCount = vertexCount;
+			this.width = width;
+			long rowSize = (long) vertexCount * width;
+			this.rowsPerWindow = (int) Math.max(1, WINDOW_SIZE / Math.max(1, rowSize));
+			int windowCount = (vertexCount + rowsPerWindow - 1) / rowsPerWindow;
+			this.windows = new ByteBuffer[windowCount];
+			for ( int w = 0; w < windowCount; w++ ) {
+				int rows = Math.min(rowsPerWindow, vertexCount - w * rowsPerWindow);
+				windows[w] = channel.map(FileChannel.MapMode.READ_ONLY, start + w * rowsPerWindow * rowSize, rows * rowSize);
+			}
+		}
+
+		@Override
+		int distance(int vertex1, int vertex2) {
+			ByteBuffer window = windows[vertex1 / rowsPerWindow];
+			int index = ((vertex1 % rowsPerWindow) * vertexCount + vertex2) * width;
+			if ( width == 1 ) {
+				return (window.get(index) & 0xff) - 1;
+			}
+			else if ( width == 2 ) {
+				return (window.getShort(index) & 0xffff) - 1;
+			}
+			return window.getInt(index) - 1;
+		}
+
+		@Override
+		int getVertexCount() {
+			return vertexCount;
+		}
+
+		@Override
+		long getDistanceBytes() {
+			return (long) vertexCount * vertexCount * width;
+		}
+	}
+}
@@ -50,7 +50,16 @@ public class GraphTest {
 
 	@Before
 	public void setUp() throws Exception {
-		this.graph = new Graph<>();
+		this.graph = createGraph();
+	}
+
+	/**
+	 * Creates the graph under test, subclasses override this to test other edge storages
+	 *
+	 * @return a new empty graph
+	 */
+	protected GraphADT<String> createGraph() {
+		return new Graph<>();
 	}
 
 	@After
@@ -334,4 +343,83 @@ public class GraphTest {
 		assertEquals("num of vertices in the graph", numOfVertices-2, verticesCount);
 	}
 
+	@Test
+	public final void removeVertexKeepsEdgesOfLaterVertices() {
+		// setup the graph by adding a few vertices and edges after the removed vertex
+		for (String itrVertex : vertices)
+			this.graph.addVertex(itrVertex);
+		this.graph.addEdge(vertices.get(0), vertices.get(1));
+		this.graph.addEdge(vertices.get(2), vertices.get(3));
+		this.graph.addEdge(vertices.get(3), vertices.get(4));
+		
+		this.graph.removeVertex(vertices.get(1));
+		
+		assertEquals("edge between vertices added after the removed vertex", 
+				true, this.graph.isAdjacent(vertices.get(2), vertices.get(3)));
+		assertEquals("edge between vertices added after the removed vertex", 
+				true, this.graph.isAdjacent(vertices.get(4), vertices.get(3)));
+		assertEquals("edge to a vertex added after the removed vertex", 
+				false, this.graph.isAdjacent(vertices.get(0), vertices.get(2)));
+		
+		// vertices keep the order they were added in
+		List<String> remaining = new ArrayList<>();
+		for (String itrVertex : this.graph.getAllVertices())
+			remaining.add(itrVertex);
+		List<String> expected = new ArrayList<>(vertices);
+		expected.remove(1);
+		assertEquals("vertices in the graph", expected, remaining);
+		
+		int numOfEdges = 0;
+		for (String itrNeighbor : this.graph.getNeighbors(vertices.get(0)))
+			numOfEdges++;
+		assertEquals(String.format("number of neighbors for vertex=%s", vertices.get(0)), 0, numOfEdges);
+	}
+
+	@Test
+	public final void removeVertexInLargeGraph() {
+		// enough vertices to resize the storage and to span several words of a bitset row
+		int size = 150;
+		for (int i = 0; i < size; i++)
+			this.graph.addVertex("v" + i);
+		for (int i = 0; i < size - 1; i++)
+			this.graph.addEdge("v" + i, "v" + (i + 1));
+		this.graph.addEdge("v0", "v149");
+		
+		this.graph.removeVertex("v64");
+		this.graph.removeVertex("v3");
+		
+		for (int i = 0; i < size - 1; i++) {
+			if (i == 2 || i == 3 || i == 63 || i == 64)
+				continue;
+			assertEquals(String.format("edge between v%d and v%d", i, i + 1), 
+					true, this.graph.isAdjacent("v" + i, "v" + (i + 1)));
+		}
+		assertEquals("edge between v2 and v4", false, this.graph.isAdjacent("v2", "v4"));
+		assertEquals("edge between v63 and v65", false, this.graph.isAdjacent("v63", "v65"));
+		assertEquals("edge between v0 and v149", true, this.graph.isAdjacent("v149", "v0"));
+		
+		int numOfEdges = 0;
+		for (String itrNeighbor : this.graph.getNeighbors("v65"))
+			numOfEdges++;
+		assertEquals("number of neighbors for vertex=v65", 1, numOfEdges);
+	}
+	
+	@Test
+	public final void countCommonNeighbors() {
+		Graph<String> graph = (Graph<String>) this.graph;
+		for (String itrVertex : vertices)
+			graph.addVertex(itrVertex);
+		graph.addEdge(vertices.get(0), vertices.get(2));
+		graph.addEdge(vertices.get(0), vertices.get(3));
+		graph.addEdge(vertices.get(0), vertices.get(4));
+		graph.addEdge(vertices.get(1), vertices.get(3));
+		graph.addEdge(vertices.get(1), vertices.get(4));
+		graph.addEdge(vertices.get(1), vertices.get(5));
+		
+		assertEquals("common neighbors of connected pair", 2, graph.countCommonNeighbors(vertices.get(0), vertices.get(1)));
+		assertEquals("common neighbors is symmetric", 2, graph.countCommonNeighbors(vertices.get(1), vertices.get(0)));
+		assertEquals("common neighbors without shared vertices", 0, graph.countCommonNeighbors(vertices.get(2), vertices.get(5)));
+		assertEquals("common neighbors if vertex doesn't exist", 0, graph.countCommonNeighbors(vertices.get(0), "zebra"));
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+import java.util.Arrays;
+
+/**
+ * Distance oracle built from breadth first searches from k landmark vertices (the ALT technique).
+ *
+ * Only k * V distances are stored. By the triangle inequality, for any landmark L reaching both u and v,
+ *   |d(L, u) - d(L, v)| <= d(u, v) <= d(L, u) + d(L, v)
+ * so each query gets lower and upper bounds in O(k). If a landmark reaches one vertex but not the
+ * other, they are in different components and there is no path. The lower bound is an admissible and
+ * consistent heuristic, which {@link #getAStarSearch()} uses for exact shortest paths.
+ */
+class LandmarkOracle {
+
+	private Graph<String> graph;
+	private int[] landmarks;
+	// dist[i][v] is the distance from landmark i to vertex v, -1 if v can not be reached
+	private int[][] dist;
+
+	/**
+	 * Constructor for the oracle, runs a search from each landmark
+	 *
+	 * @param graph the graph, which must not change while the oracle is used
+	 * @param landmarks the ids of the landmarks
+	 */
+	LandmarkOracle(Graph<String> graph, int[] landmarks) {
+		this.graph = graph;
+		this.landmarks = landmarks.clone();
+		int vertexCount = graph.getVertexCount();
+		this.dist = new int[landmarks.length][vertexCount];
+		BreadthFirstSearch search = new BreadthFirstSearch(graph);
+		for ( int i = 0; i < landmarks.length; i++ ) {
+			Arrays.fill(dist[i], -1);
+			search.distances(landmarks[i], dist[i]);
+		}
+	}
+
+	/**
+	 * Chooses k landmarks spread over the graph: each one is the vertex farthest from the landmarks
+	 * chosen so far, where a vertex none of them reaches counts as farthest. Vertices without edges
+	 * are never chosen, since a landmark in a component of one vertex says nothing about any path.
+	 *
+	 * @param graph the graph
+	 * @param k the number of landmarks wanted
+	 * @return the ids of the landmarks, fewer than k if the graph has fewer vertices with edges
+	 */
+	static int[] chooseLandmarks(Graph<String> graph, int k) {
+		int vertexCount = graph.getVertexCount();
+		int[] nearest = new int[vertexCount];
+		Arrays.fill(nearest, Integer.MAX_VALUE);
+		int[] dist = new int[vertexCount];
+		int[] buffer = new int[vertexCount];
+		boolean[] hasEdges = new boolean[vertexCount];
+		for ( int v = 0; v < vertexCount; v++ ) {
+			hasEdges[v] = graph.getNeighborIds(v, buffer) > 0;
+		}
+		BreadthFirstSearch search = new BreadthFirstSearch(graph);
+
+		int[] landmarks = new int[k];
+		int count = 0;
+		while ( count < k ) {
+			int farthest = -1;
+			for ( int v = 0; v < vertexCount; v++ ) {
+				if ( nearest[v] > 0 && hasEdges[v] && (farthest == -1 || nearest[v] > nearest[farthest]) ) {
+					farthest = v;
+				}
+			}
+			if ( farthest == -1 ) {
+				break;
+			}
+
+			landmarks[count++] = farthest;
+			Arrays.fill(dist, -1);
+			search.distances(farthest, dist);
+			for ( int v = 0; v < vertexCount; v++ ) {
+				if ( dist[v] != -1 ) {
+					nearest[v] = Math.min(nearest[v], dist[v]);
+				}
+			}
+		}
+		return Arrays.copyOf(landmarks, count);
+	}
+
+	/**
+	 * Gets a lower bound on the distance between two vertices
+	 *
+	 * @param vertex1 the id of the first vertex
+	 * @param vertex2 the id of the second vertex
+	 * @return a lower bound on the number of edges between them, or -1 if a landmark shows there is no path
+	 */
+	int lowerBound(int vertex1, int vertex2) {
+		int bound = 0;
+		for ( int[] row : dist ) {
+			int d1 = row[vertex1];
+			int d2 = row[vertex2];
+			if ( (d1 == -1) != (d2 == -1) ) {
+				return -1;
+			}
+			if ( d1 != -1 ) {
+				bound = Math.max(bound, Math.abs(d1 - d2));
+			}
+		}
+		return bound;
+	}
+
+	/**
+	 * Gets an upper bound on the distance between two vertices
+	 *
+	 * @param vertex1 the id of the first vertex
+	 * @param vertex2 the id of the second vertex
+	 * @return an upper bound on the number of edges between them, or -1 if no landmark reaches both
+	 */
+	int upperBound(int vertex1, int vertex2) {
+		int bound = -1;
+		for ( int[] row : dist ) {
+			if ( row[vertex1] != -1 && row[vertex2] != -1 ) {
+				int through = row[vertex1] + row[vertex2];
+				if ( bound == -1 || through < bound ) {
+					bound = through;
+				}
+			}
+		}
+		return bound;
+	}
+
+	/**
+	 * Creates an A* search guided by the lower bounds of this oracle
+	 *
+	 * @return the search
+	 */
+	AStarSearch getAStarSearch() {
+		return new AStarSearch(graph, (vertex, target) -> Math.max(0, lowerBound(vertex, target)));
+	}
+
+	/**
+	 * Gets the landmarks of the oracle
+	 *
+	 * @return the ids of the landmarks
+	 */
+	int[] getLandmarks() {
+		return landmarks.clone();
+	}
+}
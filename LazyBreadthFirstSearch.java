@@ -0,0 +1,107 @@
+import java.util.Arrays;
+
+/**
+ * Breadth first search of a graph from one root that only explores as far as the queries need.
+ *
+ * The search keeps its state between queries, so asking about a vertex it has already reached
+ * is a lookup, and asking about a farther vertex resumes the search where it stopped. Asking
+ * about a different root starts a new search. Memory is O(V) whatever the number of queries.
+ */
+class LazyBreadthFirstSearch {
+
+	private Graph<String> graph;
+
+	// root of the current search, -1 if there is none
+	private int root;
+	// distance from the root of each vertex, -1 if not reached yet
+	private int[] dist;
+	// predecessor of each vertex on its shortest path to the root, -1 for the root
+	private int[] pred;
+	// vertices in the order they were reached; those from head to tail are still to be expanded
+	private int[] queue;
+	private int head;
+	private int tail;
+	// reusable buffer for the neighbors of the vertex being expanded
+	private int[] neighbors;
+
+	/**
+	 * Constructor for the search
+	 *
+	 * @param graph the graph to search
+	 */
+	LazyBreadthFirstSearch(Graph<String> graph) {
+		this.graph = graph;
+		this.root = -1;
+	}
+
+	/**
+	 * Discards the current search, must be called whenever the graph changes
+	 */
+	void invalidate() {
+		root = -1;
+		dist = null;
+		pred = null;
+		queue = null;
+		neighbors = null;
+	}
+
+	/**
+	 * Gets the distance between a vertex and the root, searching further from the root if needed
+	 *
+	 * @param root the id of the root
+	 * @param vertex the id of the vertex
+	 * @return the number of edges on the shortest path, or -1 if the vertex can not be reached
+	 */
+	int distance(int root, int vertex) {
+		if ( root != this.root ) {
+			start(root);
+		}
+
+		while ( dist[vertex] == -1 && head < tail ) {
+			int u = queue[head++];
+			int degree = graph.getNeighborIds(u, neighbors);
+			for ( int i = 0; i < degree; i++ ) {
+				int neighbor = neighbors[i];
+				if ( dist[neighbor] == -1 ) {
+					dist[neighbor] = dist[u] + 1; //sets distance to predecessor distance + 1
+					pred[neighbor] = u; //sets predecessor
+					queue[tail++] = neighbor;
+				}
+			}
+		}
+		return dist[vertex];
+	}
+
+	/**
+	 * Gets the next vertex on the shortest path from a vertex to the root of the current search
+	 *
+	 * @param vertex the id of a vertex already reached by {@link #distance(int, int)}
+	 * @return the id of the next vertex, or -1 if the vertex is the root
+	 */
+	int predecessor(int vertex) {
+		return pred[vertex];
+	}
+
+	/**
+	 * Starts a new search
+	 *
+	 * @param root the id of the root
+	 */
+	private void start(int root) {
+		int vertexCount = graph.getVertexCount();
+		if ( dist == null || dist.length != vertexCount ) {
+			dist = new int[vertexCount];
+			pred = new int[vertexCount];
+			queue = new int[vertexCount];
+			neighbors = new int[vertexCount];
+		}
+		Arrays.fill(dist, -1);
+
+		this.root = root;
+		dist[root] = 0;
+		pred[root] = -1;
+		queue[0] = root;
+		head = 0;
+		tail = 1;
+	}
+}
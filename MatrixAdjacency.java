@@ -0,0 +1,125 @@
+import java.util.Arrays;
+
+/**
+ * Adjacency matrix storage for a {@link Graph}.
+ *
+ * Uses V^2 booleans, so it is only suitable for small or dense graphs.
+ */
+class MatrixAdjacency implements AdjacencyStore {
+
+	// scale factor for resizing arrays
+	private final double SCALE_FACTOR = 1.25;
+	// Initial size of arrays
+	private final int INITIAL_SIZE = 100;
+
+	/*
+	 * Adjacency matrix, with the id of the vertex as the index for the 2D matrix
+	 * If an edge exists between the two vertices, edges[id1][id2] will be true
+	 */
+	private boolean[][] edges;
+
+	/**
+	 * Constructor for the matrix, creates an empty matrix of the initial size
+	 */
+	MatrixAdjacency() {
+		edges = new boolean[INITIAL_SIZE][INITIAL_SIZE];
+	}
+
+	@Override
+	public void addVertex(int id) {
+		if ( id + 1 >= edges.length ) {
+			resizeAM();
+		}
+	}
+
+	/**
+	 * Removes a row and column from the adjacency matrix, moving every later
+	 * row up and every later column left so the matrix stays aligned with the ids
+	 */
+	@Override
+	public void removeVertex(int id, int vertexCount) {
+		for ( int row = 0; row < vertexCount; row++ ) {
+			System.arraycopy(edges[row], id + 1, edges[row], id, vertexCount - id - 1);
+			edges[row][vertexCount - 1] = false;
+		}
+
+		boolean[] removedRow = edges[id];
+		System.arraycopy(edges, id + 1, edges, id, vertexCount - id - 1);
+		Arrays.fill(removedRow, false);
+		edges[vertexCount - 1] = removedRow;
+	}
+
+	@Override
+	public void addEdge(int vertex1, int vertex2) {
+		edges[vertex1][vertex2] = true;
+		edges[vertex2][vertex1] = true;
+	}
+
+	@Override
+	public void removeEdge(int vertex1, int vertex2) {
+		edges[vertex1][vertex2] = false;
+		edges[vertex2][vertex1] = false;
+	}
+
+	@Override
+	public boolean hasEdge(int vertex1, int vertex2) {
+		return edges[vertex1][vertex2] && edges[vertex2][vertex1];
+	}
+
+	/**
+	 * Scans the whole row of the vertex, so this costs O(V) regardless of the degree
+	 */
+	@Override
+	public int[] getNeighbors(int id, int vertexCount) {
+		int degree = 0;
+		for ( int col = 0; col < vertexCount; col++ ) {
+			if ( edges[id][col] ) {
+				degree++;
+			}
+		}
+
+		int[] neighbors = new int[degree];
+		getNeighbors(id, neighbors, vertexCount);
+		return neighbors;
+	}
+
+	@Override
+	public int getNeighbors(int id, int[] buffer, int vertexCount) {
+		boolean[] row = edges[id];
+		int next = 0;
+		for ( int col = 0; col < vertexCount; col++ ) {
+			if ( row[col] ) {
+				buffer[next++] = col;
+			}
+		}
+		return next;
+	}
+
+	@Override
+	public int countCommonNeighbors(int vertex1, int vertex2, int vertexCount) {
+		int common = 0;
+		for ( int col = 0; col < vertexCount; col++ ) {
+			if ( edges[vertex1][col] && edges[vertex2][col] ) {
+				common++;
+			}
+		}
+		return common;
+	}
+
+    /**
+     * Resizes the adjacency matrix
+     */
+    private void resizeAM() {
+    	// new size is current size times scale factor.
+    	int newSize = (int) (edges.length * SCALE_FACTOR);
+    	boolean[][] newAM = new boolean[newSize][newSize];
+
+    	// copy old array into new array and set
+    	for(int i = 0; i < edges.length; i++ ) {
+    		for(int j = 0; j < edges[0].length; j++) {
+    			newAM[i][j] = edges[i][j];
+    		}
+    	}
+    	edges = newAM;
+    }
+}
@@ -0,0 +1,147 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiPredicate;
+
+/**
+ * Finds the edges of a word graph on several threads.
+ *
+ * The new words are indexed in a {@link WordBucketIndex} first, then split into chunks that a
+ * {@link ForkJoinPool} searches for adjacent words in parallel. Each chunk collects its edges as
+ * pairs of vertex ids in its own int buffer, and the buffers are added to the graph in one step
+ * once every chunk is done, so the graph is never changed by more than one thread.
+ */
+class ParallelEdgeBuilder {
+
+	// number of vertices searched by one task
+	private static final int CHUNK_SIZE = 256;
+	// initial capacity of an edge buffer, in ids
+	private static final int INITIAL_BUFFER = 64;
+
+	private Graph<String> graph;
+	private WordBucketIndex index;
+	private ForkJoinPool pool;
+	private BiPredicate<String, String> excluded;
+
+	/**
+	 * Constructor for the builder
+	 *
+	 * @param graph the graph that receives the edges
+	 * @param index the index of the words that already have their edges, new words are added to it
+	 * @param pool the pool the search runs in
+	 * @param excluded tells the pairs of adjacent words that must not get an edge, called from several threads
+	 */
+	ParallelEdgeBuilder(Graph<String> graph, WordBucketIndex index, ForkJoinPool pool, BiPredicate<String, String> excluded) {
+		this.graph = graph;
+		this.index = index;
+		this.pool = pool;
+		this.excluded = excluded;
+	}
+
+	/**
+	 * Adds every vertex of the graph that is not in the index yet, along with its edges
+	 * to the other vertices of the graph
+	 */
+	void build() {
+		int vertexCount = graph.getVertexCount();
+		boolean[] isNew = new boolean[vertexCount];
+		int[] newIds = new int[vertexCount];
+		int newCount = 0;
+		for ( int id = 0; id < vertexCount; id++ ) {
+			String word = graph.getVertex(id);
+			if ( word != null && !index.contains(word) ) {
+				index.add(word);
+				isNew[id] = true;
+				newIds[newCount++] = id;
+			}
+		}
+
+		if ( newCount == 0 ) {
+			return;
+		}
+
+		int chunks = (newCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		int[][] buffers = new int[chunks][];
+		int[] lengths = new int[chunks];
+		pool.invoke(new SearchTask(newIds, newCount, isNew, buffers, lengths, 0, chunks));
+
+		for ( int chunk = 0; chunk < chunks; chunk++ ) {
+			graph.addEdges(buffers[chunk], lengths[chunk]);
+		}
+	}
+
+	/**
+	 * Searches a range of chunks for edges, splitting the range in half until it is a single chunk
+	 */
+	private class SearchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private int[] newIds;
+		private int newCount;
+		private boolean[] isNew;
+		private int[][] buffers;
+		private int[] lengths;
+		private int firstChunk;
+		private int lastChunk;
+
+		/**
+		 * @param newIds ids of the new vertices
+		 * @param newCount number of ids used in newIds
+		 * @param isNew whether each vertex id is new
+		 * @param buffers receives the edge buffer of each chunk
+		 * @param lengths receives the number of ids used in each buffer
+		 * @param firstChunk first chunk of the range
+		 * @param lastChunk chunk after the range
+		 */
+		SearchTask(int[] newIds, int newCount, boolean[] isNew, int[][] buffers, int[] lengths,
+				int firstChunk, int lastChunk) {
+			this.newIds = newIds;
+			this.newCount = newCount;
+			this.isNew = isNew;
+			this.buffers = buffers;
+			this.lengths = lengths;
+			this.firstChunk = firstChunk;
+			this.lastChunk = lastChunk;
+		}
+
+		@Override
+		protected void compute() {
+			if ( lastChunk - firstChunk > 1 ) {
+				int middle = (firstChunk + lastChunk) >>> 1;
+				invokeAll(new SearchTask(newIds, newCount, isNew, buffers, lengths, firstChunk, middle),
+						new SearchTask(newIds, newCount, isNew, buffers, lengths, middle, lastChunk));
+				return;
+			}
+
+			int[] buffer = new int[INITIAL_BUFFER];
+			int length = 0;
+			int end = Math.min(newCount, (firstChunk + 1) * CHUNK_SIZE);
+			for ( int i = firstChunk * CHUNK_SIZE; i < end; i++ ) {
+				int id = newIds[i];
+				String vertex = graph.getVertex(id);
+				for ( String word : index.findAdjacent(vertex) ) {
+					int neighbor = graph.indexOf(word);
+
+					/*
+					 * An edge between two new vertices is found from both ends, so only the
+					 * vertex with the greater id keeps it
+					 */
+					if ( isNew[neighbor] && neighbor > id ) {
+						continue;
+					}
+					if ( excluded.test(vertex, word) ) {
+						continue;
+					}
+					if ( length + 2 > buffer.length ) {
+						buffer = Arrays.copyOf(buffer, buffer.length * 2);
+					}
+					buffer[length++] = id;
+					buffer[length++] = neighbor;
+				}
+			}
+			buffers[firstChunk] = buffer;
+			lengths[firstChunk] = length;
+		}
+	}
+}
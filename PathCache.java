@@ -0,0 +1,164 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of shortest paths, for {@link GraphProcessor#setPathCache(PathCache)}.
+ *
+ * Paths are undirected, so a pair is cached once under its smaller and greater vertex id, and the path
+ * between them is stored as the ids from the smaller to the greater, reversed when asked the other way.
+ * The cache is bounded both by a number of paths and by an estimate of the bytes they use; past either
+ * bound the least recently used paths are evicted. Not thread safe.
+ */
+public class PathCache {
+
+	// estimated bytes of one cached path besides its ids: the map entry, the boxed key and the array header
+	static final int ENTRY_BYTES = 72;
+	// marks a pair that has no path
+	private static final int[] NO_PATH = new int[0];
+
+	private int maxEntries;
+	private long maxBytes;
+	private long bytes;
+	private long hits;
+	private long misses;
+
+	/*
+	 * (smaller id << 32 | greater id) -> ids of the path from the smaller to the greater,
+	 * in access order, so the first entry is the least recently used
+	 */
+	private LinkedHashMap<Long, int[]> paths;
+
+	/**
+	 * Constructor for the cache
+	 *
+	 * @param maxEntries the most paths kept, at least 1
+	 * @param maxBytes the most bytes kept, as estimated, Long.MAX_VALUE for no bound
+	 */
+	public PathCache(int maxEntries, long maxBytes) {
+		if ( maxEntries < 1 ) {
+			throw new IllegalArgumentException("maxEntries must be at least 1: " + maxEntries);
+		}
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		this.paths = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Gets the cached path between two vertices, counting a hit or a miss
+	 *
+	 * @param id1 the id of the first vertex
+	 * @param id2 the id of the second vertex, different from id1
+	 * @return the ids of the path from id1 to id2, an empty array if there is no path, or null if not cached
+	 */
+	int[] get(int id1, int id2) {
+		int[] path = paths.get(key(id1, id2));
+		if ( path == null ) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return id1 < id2 ? path : reverse(path);
+	}
+
+	/**
+	 * Caches the path between two vertices, evicting the least recently used paths past the bounds
+	 *
+	 * @param id1 the id of the first vertex
+	 * @param id2 the id of the second vertex, different from id1
+	 * @param path the ids of the path from id1 to id2, or null if there is no path
+	 */
+	void put(int id1, int id2, int[] path) {
+		int[] stored = path == null ? NO_PATH : id1 < id2 ? path : reverse(path);
+		int[] previous = paths.put(key(id1, id2), stored);
+		if ( previous != null ) {
+			bytes -= size(previous);
+		}
+		bytes += size(stored);
+
+		Iterator<Map.Entry<Long, int[]>> eldest = paths.entrySet().iterator();
+		while ( paths.size() > maxEntries || (bytes > maxBytes && paths.size() > 1) ) {
+			bytes -= size(eldest.next().getValue());
+			eldest.remove();
+		}
+	}
+
+	/**
+	 * Removes every path, for when the graph changes. The hit and miss counts are kept.
+	 */
+	public void clear() {
+		paths.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Gets the number of lookups that found a cached path
+	 *
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Gets the number of lookups that found no cached path
+	 *
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Gets the number of cached paths
+	 *
+	 * @return the number of paths
+	 */
+	public int size() {
+		return paths.size();
+	}
+
+	/**
+	 * Gets the estimated number of bytes used by the cached paths
+	 *
+	 * @return the number of bytes
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Gets the key of a pair, the same both ways
+	 *
+	 * @param id1 the id of the first vertex
+	 * @param id2 the id of the second vertex
+	 * @return the key
+	 */
+	private static Long key(int id1, int id2) {
+		return (long) Math.min(id1, id2) << 32 | Math.max(id1, id2);
+	}
+
+	/**
+	 * Gets the estimated number of bytes of a cached path
+	 *
+	 * @param path the ids of the path
+	 * @return the number of bytes
+	 */
+	private static long size(int[] path) {
+		return ENTRY_BYTES + 4L * path.length;
+	}
+
+	/**
+	 * Reverses a path into a new array
+	 *
+	 * @param path the ids of the path
+	 * @return the ids in the other direction
+	 */
+	private static int[] reverse(int[] path) {
+		int[] reversed = new int[path.length];
+		for ( int i = 0; i < path.length; i++ ) {
+			reversed[i] = path[path.length - 1 - i];
+		}
+		return reversed;
+	}
+}
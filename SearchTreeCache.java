@@ -0,0 +1,181 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of whole breadth first search trees, for {@link GraphProcessor#setSearchTreeCache(SearchTreeCache)}.
+ *
+ * A tree is kept per source vertex, as the parent and the distance of every vertex, 6 bytes per vertex,
+ * so once a source has been searched from, the path to any target is read off the tree in O(path length).
+ * This suits queries that share their first word, which a {@link PathCache} keyed on both words does not
+ * help with. Past the bound the least recently used trees are evicted. Not thread safe.
+ */
+public class SearchTreeCache {
+
+	private int maxTrees;
+	private long hits;
+	private long misses;
+
+	/*
+	 * source id -> its search tree, in access order, so the first entry is the least recently used
+	 */
+	private LinkedHashMap<Integer, SearchTree> trees;
+
+	/**
+	 * Constructor for the cache
+	 *
+	 * @param maxTrees the most trees kept, at least 1
+	 */
+	public SearchTreeCache(int maxTrees) {
+		if ( maxTrees < 1 ) {
+			throw new IllegalArgumentException("maxTrees must be at least 1: " + maxTrees);
+		}
+		this.maxTrees = maxTrees;
+		this.trees = new LinkedHashMap<Integer, SearchTree>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, SearchTree> eldest) {
+				return size() > SearchTreeCache.this.maxTrees;
+			}
+		};
+	}
+
+	/**
+	 * Gets the cached tree of a source, counting a hit or a miss
+	 *
+	 * @param source the id of the source
+	 * @return the tree, or null if not cached
+	 */
+	SearchTree get(int source) {
+		SearchTree tree = trees.get(source);
+		if ( tree == null ) {
+			misses++;
+		}
+		else {
+			hits++;
+		}
+		return tree;
+	}
+
+	/**
+	 * Caches the tree of a source, evicting the least recently used tree past the bound
+	 *
+	 * @param source the id of the source
+	 * @param tree the tree
+	 */
+	void put(int source, SearchTree tree) {
+		trees.put(source, tree);
+	}
+
+	/**
+	 * Removes every tree, for when the graph changes. The hit and miss counts are kept.
+	 */
+	public void clear() {
+		trees.clear();
+	}
+
+	/**
+	 * Gets the number of lookups that found a cached tree
+	 *
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Gets the number of lookups that found no cached tree
+	 *
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Gets the number of cached trees
+	 *
+	 * @return the number of trees
+	 */
+	public int size() {
+		return trees.size();
+	}
+
+	/**
+	 * Gets the number of bytes used by the arrays of the cached trees
+	 *
+	 * @return the number of bytes
+	 */
+	public long getBytes() {
+		long bytes = 0;
+		for ( SearchTree tree : trees.values() ) {
+			bytes += 6L * tree.parent.length;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Breadth first search tree of one source, never changed once built
+	 */
+	static final class SearchTree {
+
+		// parent of each vertex on its shortest path to the source, meaningless if not reached
+		private final int[] parent;
+		// number of edges from the source to each vertex, -1 if not reached
+		private final short[] dist;
+
+		/**
+		 * Builds a tree from the tables filled by a search
+		 *
+		 * @param dist the distance of each vertex, -1 if not reached, each at most Short.MAX_VALUE
+		 * @param pred the predecessor of each vertex, kept by the tree
+		 */
+		SearchTree(int[] dist, int[] pred) {
+			this.parent = pred;
+			this.dist = new short[dist.length];
+			for ( int id = 0; id < dist.length; id++ ) {
+				this.dist[id] = (short) dist[id];
+			}
+		}
+
+		/**
+		 * Gets the distance from the source to a vertex
+		 *
+		 * @param target the id of the vertex
+		 * @return the number of edges, or -1 if the vertex can not be reached
+		 */
+		int distance(int target) {
+			return dist[target];
+		}
+
+		/**
+		 * Gets the path from the source to a vertex
+		 *
+		 * @param target the id of the vertex
+		 * @return the ids of the vertices of the path, or null if the vertex can not be reached
+		 */
+		int[] path(int target) {
+			int distance = dist[target];
+			if ( distance == -1 ) {
+				return null;
+			}
+			int[] path = new int[distance + 1];
+			path(target, path);
+			return path;
+		}
+
+		/**
+		 * Writes the path from the source to a vertex into a buffer
+		 *
+		 * @param target the id of the vertex
+		 * @param buffer receives the ids of the vertices of the path, at least distance + 1 long
+		 * @return the number of ids written, 0 if the vertex can not be reached
+		 */
+		int path(int target, int[] buffer) {
+			int distance = dist[target];
+			for ( int i = distance; i >= 0; i-- ) {
+				buffer[i] = target;
+				target = parent[target];
+			}
+			return distance + 1;
+		}
+	}
+}
@@ -0,0 +1,169 @@
+import java.util.Arrays;
+
+/**
+ * Adjacency list storage for a {@link Graph}.
+ *
+ * Every vertex keeps a growable int array of its neighbor ids, kept sorted so that
+ * neighbors come out in the same order as from {@link MatrixAdjacency} and edge lookups
+ * are a binary search. Memory is O(V + E), which suits word graphs where the average
+ * degree is tiny compared to the number of words.
+ */
+class SparseAdjacency implements AdjacencyStore {
+
+	// scale factor for resizing the vertex arrays
+	private final double SCALE_FACTOR = 1.25;
+	// Initial number of vertices
+	private final int INITIAL_SIZE = 100;
+	// Initial capacity of a neighbor array, once the vertex gets its first edge
+	private final int INITIAL_DEGREE = 4;
+
+	// shared neighbor array for vertices without edges
+	private static final int[] NO_NEIGHBORS = new int[0];
+
+	/*
+	 * neighbors[id] holds the sorted neighbor ids of a vertex in its first degrees[id] slots
+	 */
+	private int[][] neighbors;
+	private int[] degrees;
+
+	/**
+	 * Constructor for the adjacency lists, creates room for the initial number of vertices
+	 */
+	SparseAdjacency() {
+		neighbors = new int[INITIAL_SIZE][];
+		degrees = new int[INITIAL_SIZE];
+	}
+
+	@Override
+	public void addVertex(int id) {
+		if ( id >= neighbors.length ) {
+			int newSize = Math.max(id + 1, (int) (neighbors.length * SCALE_FACTOR));
+			neighbors = Arrays.copyOf(neighbors, newSize);
+			degrees = Arrays.copyOf(degrees, newSize);
+		}
+		neighbors[id] = NO_NEIGHBORS;
+		degrees[id] = 0;
+	}
+
+	@Override
+	public void removeVertex(int id, int vertexCount) {
+		System.arraycopy(neighbors, id + 1, neighbors, id, vertexCount - id - 1);
+		System.arraycopy(degrees, id + 1, degrees, id, vertexCount - id - 1);
+		neighbors[vertexCount - 1] = null;
+		degrees[vertexCount - 1] = 0;
+
+		/*
+		 * Drop the removed id from every list and shift the ids after it down by one,
+		 * which keeps every list sorted
+		 */
+		for ( int row = 0; row < vertexCount - 1; row++ ) {
+			int[] list = neighbors[row];
+			int kept = 0;
+			for ( int i = 0; i < degrees[row]; i++ ) {
+				int neighbor = list[i];
+				if ( neighbor != id ) {
+					list[kept++] = neighbor > id ? neighbor - 1 : neighbor;
+				}
+			}
+			degrees[row] = kept;
+		}
+	}
+
+	@Override
+	public void addEdge(int vertex1, int vertex2) {
+		insert(vertex1, vertex2);
+		insert(vertex2, vertex1);
+	}
+
+	@Override
+	public void removeEdge(int vertex1, int vertex2) {
+		delete(vertex1, vertex2);
+		delete(vertex2, vertex1);
+	}
+
+	@Override
+	public boolean hasEdge(int vertex1, int vertex2) {
+		return Arrays.binarySearch(neighbors[vertex1], 0, degrees[vertex1], vertex2) >= 0;
+	}
+
+	/**
+	 * Copies the neighbor list of the vertex, so this costs O(degree)
+	 */
+	@Override
+	public int[] getNeighbors(int id, int vertexCount) {
+		return Arrays.copyOf(neighbors[id], degrees[id]);
+	}
+
+	@Override
+	public int getNeighbors(int id, int[] buffer, int vertexCount) {
+		System.arraycopy(neighbors[id], 0, buffer, 0, degrees[id]);
+		return degrees[id];
+	}
+
+	/**
+	 * Merges the two sorted neighbor lists, so this costs O(degree1 + degree2)
+	 */
+	@Override
+	public int countCommonNeighbors(int vertex1, int vertex2, int vertexCount) {
+		int[] list1 = neighbors[vertex1];
+		int[] list2 = neighbors[vertex2];
+		int i = 0;
+		int j = 0;
+		int common = 0;
+		while ( i < degrees[vertex1] && j < degrees[vertex2] ) {
+			if ( list1[i] < list2[j] ) {
+				i++;
+			}
+			else if ( list1[i] > list2[j] ) {
+				j++;
+			}
+			else {
+				common++;
+				i++;
+				j++;
+			}
+		}
+		return common;
+	}
+
+	/**
+	 * Adds a neighbor to the sorted list of a vertex, growing the list if it is full
+	 *
+	 * @param id the vertex whose list is changed
+	 * @param neighbor the id of the new neighbor
+	 */
+	private void insert(int id, int neighbor) {
+		int[] list = neighbors[id];
+		int degree = degrees[id];
+		int position = Arrays.binarySearch(list, 0, degree, neighbor);
+		if ( position >= 0 ) {
+			return;
+		}
+		position = -position - 1;
+
+		if ( degree == list.length ) {
+			list = Arrays.copyOf(list, Math.max(INITIAL_DEGREE, list.length * 2));
+			neighbors[id] = list;
+		}
+		System.arraycopy(list, position, list, position + 1, degree - position);
+		list[position] = neighbor;
+		degrees[id] = degree + 1;
+	}
+
+	/**
+	 * Removes a neighbor from the sorted list of a vertex
+	 *
+	 * @param id the vertex whose list is changed
+	 * @param neighbor the id of the removed neighbor
+	 */
+	private void delete(int id, int neighbor) {
+		int[] list = neighbors[id];
+		int degree = degrees[id];
+		int position = Arrays.binarySearch(list, 0, degree, neighbor);
+		if ( position < 0 ) {
+			return;
+		}
+		System.arraycopy(list, position + 1, list, position, degree - position - 1);
+		degrees[id] = degree - 1;
+	}
+}
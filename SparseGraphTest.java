@@ -0,0 +1,11 @@
+
+/**
+ * Runs the {@link GraphTest} cases against a graph that stores its edges in adjacency lists
+ */
+public class SparseGraphTest extends GraphTest {
+
+	@Override
+	protected GraphADT<String> createGraph() {
+		return new Graph<>(Graph.Storage.SPARSE);
+	}
+}
@@ -0,0 +1,86 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Runs the {@link GraphTest} cases against a graph that keeps its vertex ids stable,
+ * and checks that removing a vertex leaves the other ids alone
+ */
+public class StableGraphTest extends GraphTest {
+
+	@Override
+	protected GraphADT<String> createGraph() {
+		return new Graph<>(Graph.Storage.SPARSE, true);
+	}
+
+	/**
+	 * Removing a vertex frees its id without moving the others, and the next vertex added takes it
+	 */
+	@Test
+	public final void removeVertexKeepsOtherIds() {
+		Graph<String> graph = new Graph<>(Graph.Storage.SPARSE, true);
+		for ( String vertex : Arrays.asList("a", "b", "c", "d") ) {
+			graph.addVertex(vertex);
+		}
+		graph.addEdge("a", "b");
+		graph.addEdge("b", "c");
+		graph.addEdge("c", "d");
+
+		assertEquals("b", graph.removeVertex("b"));
+		assertEquals(4, graph.getVertexCount());
+		assertEquals(3, graph.size());
+		assertNull(graph.getVertex(1));
+		assertEquals(2, graph.indexOf("c"));
+		assertEquals(3, graph.indexOf("d"));
+		assertTrue(graph.isAdjacent("c", "d"));
+		assertFalse(graph.isAdjacent("a", "c"));
+		assertEquals(0, graph.getNeighborIds(1).length);
+
+		List<String> vertices = new ArrayList<>();
+		graph.getAllVertices().forEach(vertices::add);
+		assertEquals(Arrays.asList("a", "c", "d"), vertices);
+
+		// the freed id comes back without its old edges
+		graph.addVertex("e");
+		assertEquals(1, graph.indexOf("e"));
+		assertEquals(4, graph.getVertexCount());
+		assertFalse(graph.isAdjacent("e", "a"));
+		assertFalse(graph.isAdjacent("e", "c"));
+		graph.addVertex("f");
+		assertEquals(4, graph.indexOf("f"));
+	}
+
+	/**
+	 * Vertices are listed in the order they were added, also when a vertex takes a freed id
+	 */
+	@Test
+	public final void getAllVerticesInOrderAdded() {
+		Graph<String> graph = new Graph<>(Graph.Storage.SPARSE, true);
+		for ( String vertex : Arrays.asList("a", "b", "c") ) {
+			graph.addVertex(vertex);
+		}
+		graph.removeVertex("a");
+		graph.addVertex("d");
+		assertEquals(0, graph.indexOf("d"));
+		graph.removeVertex("c");
+		graph.addVertex("e");
+		graph.addVertex("f");
+
+		List<String> vertices = new ArrayList<>();
+		graph.getAllVertices().forEach(vertices::add);
+		assertEquals(Arrays.asList("b", "d", "e", "f"), vertices);
+
+		graph.removeVertex("f");
+		graph.removeVertex("b");
+		vertices.clear();
+		graph.getAllVertices().forEach(vertices::add);
+		assertEquals(Arrays.asList("d", "e"), vertices);
+	}
+}
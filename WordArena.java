@@ -0,0 +1,223 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compact table of distinct ASCII words, each identified by a dense int id (0 to size - 1) in the order added.
+ *
+ * All the characters live in one byte array, with an int offset per word and an open addressing hash table
+ * of ids for lookups, so a word costs its length plus about 12 bytes instead of a String object
+ * (about 60 bytes for a short word). Strings are only created when a word is read with {@link #getWord(int)}.
+ */
+public class WordArena {
+
+	// Initial number of bytes for the characters
+	private final int INITIAL_SIZE = 1024;
+	// Initial number of words
+	private final int INITIAL_WORDS = 128;
+
+	/*
+	 * characters of word id are bytes[offsets[id]] to bytes[offsets[id + 1] - 1]
+	 */
+	private byte[] bytes;
+	private int[] offsets;
+	private int count;
+
+	/*
+	 * hash table of id + 1 (0 is an empty slot), with linear probing; its length is
+	 * a power of two and it is kept at most half full
+	 */
+	private int[] table;
+
+	/**
+	 * Constructor for the arena, creates an empty arena
+	 */
+	public WordArena() {
+		bytes = new byte[INITIAL_SIZE];
+		offsets = new int[INITIAL_WORDS + 1];
+		table = new int[INITIAL_WORDS * 2];
+	}
+
+	/**
+	 * Gets the number of words in the arena
+	 *
+	 * @return the number of words
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Checks whether a word can be added to an arena
+	 *
+	 * @param word the word
+	 * @return true if every character of the word is ASCII
+	 */
+	public static boolean isAscii(CharSequence word) {
+		for ( int i = 0; i < word.length(); i++ ) {
+			if ( word.charAt(i) > 127 ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds a word, unless it is already in the arena
+	 *
+	 * @param word the word, which must only contain ASCII characters
+	 * @return the id of the word
+	 * @throws IllegalArgumentException if the word has a character that is not ASCII
+	 */
+	public int add(CharSequence word) {
+		int length = word.length();
+		int hash = 0;
+		for ( int i = 0; i < length; i++ ) {
+			char c = word.charAt(i);
+			if ( c > 127 ) {
+				throw new IllegalArgumentException("not an ASCII word: " + word);
+			}
+			hash = 31 * hash + c;
+		}
+
+		int slot = find(word, hash);
+		if ( table[slot] != 0 ) {
+			return table[slot] - 1;
+		}
+
+		int start = reserve(length);
+		for ( int i = 0; i < length; i++ ) {
+			bytes[start + i] = (byte) word.charAt(i);
+		}
+		return commit(slot);
+	}
+
+	/**
+	 * Gets the id of a word
+	 *
+	 * @param word the word
+	 * @return the id of the word, or -1 if it is not in the arena
+	 */
+	public int indexOf(CharSequence word) {
+		int length = word.length();
+		int hash = 0;
+		for ( int i = 0; i < length; i++ ) {
+			hash = 31 * hash + word.charAt(i);
+		}
+		return table[find(word, hash)] - 1;
+	}
+
+	/**
+	 * Gets a word as a new String
+	 *
+	 * @param id the id of the word
+	 * @return the word
+	 */
+	public String getWord(int id) {
+		return new String(bytes, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Appends a word to a character sink, without creating a String
+	 *
+	 * @param id the id of the word
+	 * @param out receives the characters of the word
+	 * @throws IOException exception resulting from appending to out
+	 */
+	public void append(int id, Appendable out) throws IOException {
+		for ( int i = offsets[id]; i < offsets[id + 1]; i++ ) {
+			out.append((char) bytes[i]);
+		}
+	}
+
+	/**
+	 * Finds the slot of a word in the hash table
+	 *
+	 * @param word the word
+	 * @param hash the hash of the word
+	 * @return the slot holding the word, or the empty slot where it would be added
+	 */
+	private int find(CharSequence word, int hash) {
+		int slot = mix(hash) & (table.length - 1);
+		while ( table[slot] != 0 && !matches(table[slot] - 1, word) ) {
+			slot = (slot + 1) & (table.length - 1);
+		}
+		return slot;
+	}
+
+	/**
+	 * Makes room for the bytes of a new word
+	 *
+	 * @param length the length of the new word
+	 * @return the offset where the bytes of the word go
+	 */
+	private int reserve(int length) {
+		int start = offsets[count];
+		if ( start + length > bytes.length ) {
+			bytes = Arrays.copyOf(bytes, Math.max(start + length, bytes.length * 2));
+		}
+		if ( count + 2 > offsets.length ) {
+			offsets = Arrays.copyOf(offsets, offsets.length * 2);
+		}
+		offsets[count + 1] = start + length;
+		return start;
+	}
+
+	/**
+	 * Gives the word whose bytes were just reserved its id
+	 *
+	 * @param slot the empty hash table slot for the word
+	 * @return the id of the word
+	 */
+	private int commit(int slot) {
+		int id = count++;
+		table[slot] = id + 1;
+		if ( count * 2 > table.length ) {
+			rehash();
+		}
+		return id;
+	}
+
+	/**
+	 * Doubles the hash table
+	 */
+	private void rehash() {
+		int[] newTable = new int[table.length * 2];
+		for ( int id = 0; id < count; id++ ) {
+			int hash = 0;
+			for ( int i = offsets[id]; i < offsets[id + 1]; i++ ) {
+				hash = 31 * hash + bytes[i];
+			}
+			int slot = mix(hash) & (newTable.length - 1);
+			while ( newTable[slot] != 0 ) {
+				slot = (slot + 1) & (newTable.length - 1);
+			}
+			newTable[slot] = id + 1;
+		}
+		table = newTable;
+	}
+
+	private boolean matches(int id, CharSequence word) {
+		int start = offsets[id];
+		int length = offsets[id + 1] - start;
+		if ( length != word.length() ) {
+			return false;
+		}
+		for ( int i = 0; i < length; i++ ) {
+			if ( bytes[start + i] != word.charAt(i) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Spreads the bits of a hash so that linear probing on the low bits works well
+	 *
+	 * @param hash the hash
+	 * @return the spread hash
+	 */
+	private static int mix(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+}
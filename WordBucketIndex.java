@@ -0,0 +1,217 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Index of words by the keys that adjacent words share, used to build the edges of the word graph
+ * without comparing every pair of words.
+ *
+ * Two words are only adjacent (see {@link WordProcessor#isAdjacent(String, String)}) if
+ *  - they have the same length and the same substitution pattern, which is the word with one
+ *    character replaced by a wildcard (CAT and COT both have the pattern C*T), or
+ *  - the shorter word is the longer word with one character deleted (its deletion key).
+ * So each word only has to be compared with the words that share one of its L patterns or keys.
+ */
+class WordBucketIndex {
+
+	// character that replaces one position of a word in a substitution pattern
+	private static final char WILDCARD = '*';
+
+	/*
+	 * substitution pattern -> words with that pattern
+	 */
+	private HashMap<String, ArrayList<String>> patterns;
+	/*
+	 * deletion key -> words that become the key when one of their characters is deleted
+	 */
+	private HashMap<String, ArrayList<String>> deletions;
+	/*
+	 * every word in the index
+	 */
+	private HashSet<String> words;
+
+	/**
+	 * Constructor for the index, creates an empty index
+	 */
+	WordBucketIndex() {
+		patterns = new HashMap<>();
+		deletions = new HashMap<>();
+		words = new HashSet<>();
+	}
+
+	/**
+	 * Checks whether a word has been added to the index
+	 *
+	 * @param word the word
+	 * @return true if the word is in the index
+	 */
+	boolean contains(String word) {
+		return words.contains(word);
+	}
+
+	/**
+	 * Adds a word to the index and finds the words already in the index that are adjacent to it.
+	 * Adding every word of a dictionary one by one therefore finds every adjacent pair exactly once.
+	 *
+	 * @param word the word to add, must not already be in the index
+	 * @return the words already in the index that are adjacent to the word
+	 */
+	List<String> addWord(String word) {
+		List<String> adjacent = findAdjacent(word);
+		add(word);
+		return adjacent;
+	}
+
+	/**
+	 * Finds the words in the index that are adjacent to a word, without changing the index.
+	 * Only reads the index, so any number of threads can call this while nothing is being added.
+	 *
+	 * @param word the word, which may or may not be in the index
+	 * @return the words in the index that are adjacent to the word
+	 */
+	List<String> findAdjacent(String word) {
+		List<String> adjacent = new ArrayList<>();
+		int length = word.length();
+		char[] chars = word.toCharArray();
+
+		/*
+		 * Words of the same length, one substitution away
+		 */
+		for ( int i = 0; i < length; i++ ) {
+			ArrayList<String> bucket = patterns.get(pattern(chars, i));
+			if ( bucket != null ) {
+				addAdjacent(word, bucket, adjacent);
+			}
+		}
+
+		/*
+		 * Longer words, one deletion away from this word
+		 */
+		ArrayList<String> longer = deletions.get(word);
+		if ( longer != null ) {
+			addAdjacent(word, longer, adjacent);
+		}
+
+		/*
+		 * Shorter words, this word with one deletion. Deleting any character of a run of
+		 * equal characters gives the same key, so repeated keys are skipped
+		 */
+		String previousKey = null;
+		for ( int i = 0; i < length; i++ ) {
+			String key = word.substring(0, i) + word.substring(i + 1);
+			if ( !key.equals(previousKey) && words.contains(key) && WordProcessor.isAdjacent(word, key) ) {
+				adjacent.add(key);
+			}
+			previousKey = key;
+		}
+
+		return adjacent;
+	}
+
+	/**
+	 * Adds a word to the buckets of its substitution patterns and deletion keys
+	 *
+	 * @param word the word to add, must not already be in the index
+	 */
+	void add(String word) {
+		int length = word.length();
+		char[] chars = word.toCharArray();
+
+		for ( int i = 0; i < length; i++ ) {
+			String pattern = pattern(chars, i);
+			ArrayList<String> bucket = patterns.get(pattern);
+			if ( bucket == null ) {
+				bucket = new ArrayList<>();
+				patterns.put(pattern, bucket);
+			}
+			bucket.add(word);
+		}
+
+		// a word is added to each distinct deletion key once, see findAdjacent
+		String previousKey = null;
+		for ( int i = 0; i < length; i++ ) {
+			String key = word.substring(0, i) + word.substring(i + 1);
+			if ( !key.equals(previousKey) ) {
+				ArrayList<String> bucket = deletions.get(key);
+				if ( bucket == null ) {
+					bucket = new ArrayList<>();
+					deletions.put(key, bucket);
+				}
+				bucket.add(word);
+			}
+			previousKey = key;
+		}
+
+		words.add(word);
+	}
+
+	/**
+	 * Removes a word from the index, so it is no longer found adjacent to other words
+	 *
+	 * @param word the word to remove
+	 * @return true if the word was in the index
+	 */
+	boolean remove(String word) {
+		if ( !words.remove(word) ) {
+			return false;
+		}
+
+		int length = word.length();
+		char[] chars = word.toCharArray();
+		for ( int i = 0; i < length; i++ ) {
+			removeFromBucket(patterns, pattern(chars, i), word);
+		}
+		for ( int i = 0; i < length; i++ ) {
+			removeFromBucket(deletions, word.substring(0, i) + word.substring(i + 1), word);
+		}
+		return true;
+	}
+
+	/**
+	 * Removes a word from a bucket, dropping the bucket once it is empty.
+	 * A bucket holds each word at most once, so a word already removed is simply not found.
+	 *
+	 * @param buckets the buckets
+	 * @param key the key of the bucket
+	 * @param word the word to remove
+	 */
+	private static void removeFromBucket(HashMap<String, ArrayList<String>> buckets, String key, String word) {
+		ArrayList<String> bucket = buckets.get(key);
+		if ( bucket != null && bucket.remove(word) && bucket.isEmpty() ) {
+			buckets.remove(key);
+		}
+	}
+
+	/**
+	 * Gets the substitution pattern of a word for one position
+	 *
+	 * @param chars the characters of the word, left unchanged
+	 * @param position the position replaced by the wildcard
+	 * @return the pattern
+	 */
+	private static String pattern(char[] chars, int position) {
+		char original = chars[position];
+		chars[position] = WILDCARD;
+		String pattern = new String(chars);
+		chars[position] = original;
+		return pattern;
+	}
+
+	/**
+	 * Adds the words of a bucket that are adjacent to a word to a list.
+	 * Sharing a bucket makes a pair a candidate, {@link WordProcessor#isAdjacent(String, String)}
+	 * still decides, so the edges are exactly those of a pairwise comparison.
+	 *
+	 * @param word the word
+	 * @param bucket the candidates for the word
+	 * @param adjacent list that receives the adjacent words
+	 */
+	private static void addAdjacent(String word, List<String> bucket, List<String> adjacent) {
+		for ( String candidate : bucket ) {
+			if ( WordProcessor.isAdjacent(word, candidate) ) {
+				adjacent.add(candidate);
+			}
+		}
+	}
+}
@@ -0,0 +1,140 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Query front end of the words of a graph: finds the id of a word as it is typed in a query, and gives
+ * the lowercase form of a word by id.
+ *
+ * The graph stores words in upper case, so a query would otherwise upper-case its words to look them up,
+ * and lower-case every word of the path it returns. Here the lowercase forms live in a {@link WordArena},
+ * one byte per character, and each query word is looked up in the arena without creating a String when it
+ * is already lowercase, as words usually are, falling back on the upper-case lookup of the graph for any
+ * other case. A lowercase form only becomes a String when a path is returned as Strings; appended to a
+ * character sink it is copied from the arena. There is one entry per vertex id, so a word given twice in
+ * the dictionary is indexed once.
+ *
+ * The graph still keys its vertices on its own uppercase Strings, so the arena comes on top of them. What
+ * it saves is a lowercase String and a hash map entry per word compared with a String-keyed index, and the
+ * lowercase Strings made per hop of every path; it does not shrink the vertices of the graph.
+ *
+ * The arena can not remove words, so a removed word keeps its bytes and arena id, which it gets back if it
+ * is added again: the arena grows with the distinct words the graph ever had. A word that is not ASCII in
+ * lower case is left out of the arena, it is found through the graph and lower-cased on output.
+ *
+ * Not thread safe while updated; between updates it can be read from any number of threads.
+ */
+class WordIndex {
+
+	private Graph<String> graph;
+	// lowercase forms, by arena id
+	private WordArena arena;
+	// arena id -> vertex id, -1 if the word is not in the graph
+	private int[] vertices;
+	// vertex id -> arena id, -1 if the id has no word or its word is not in the arena
+	private int[] arenaIds;
+	// vertex id -> word of the graph the entry was made for, null if none
+	private String[] words;
+
+	/**
+	 * Constructor for the index, empty until updated
+	 *
+	 * @param graph the graph of words, in upper case
+	 */
+	WordIndex(Graph<String> graph) {
+		this.graph = graph;
+		this.arena = new WordArena();
+		this.vertices = new int[0];
+		this.arenaIds = new int[0];
+		this.words = new String[0];
+	}
+
+	/**
+	 * Brings the index up to date with the graph, after words are added or removed. Only the ids
+	 * whose word changed are indexed again, the others are compared by reference.
+	 */
+	void update() {
+		int idCount = graph.getVertexCount();
+		if ( idCount > words.length ) {
+			int oldLength = words.length;
+			words = Arrays.copyOf(words, idCount);
+			arenaIds = Arrays.copyOf(arenaIds, idCount);
+			Arrays.fill(arenaIds, oldLength, idCount, -1);
+		}
+		for ( int id = 0; id < words.length; id++ ) {
+			String word = id < idCount ? graph.getVertex(id) : null;
+			if ( word != words[id] ) {
+				// when ids shift, the old word of this id may already be indexed under its new id
+				int oldArenaId = arenaIds[id];
+				if ( oldArenaId != -1 && vertices[oldArenaId] == id ) {
+					vertices[oldArenaId] = -1;
+				}
+				words[id] = word;
+				arenaIds[id] = word == null ? -1 : add(word.toLowerCase(), id);
+			}
+		}
+	}
+
+	/**
+	 * Adds the lowercase form of a word to the arena
+	 *
+	 * @param lowercase the lowercase form
+	 * @param id the vertex id of the word
+	 * @return the arena id of the word, -1 if it is not ASCII
+	 */
+	private int add(String lowercase, int id) {
+		if ( !WordArena.isAscii(lowercase) ) {
+			return -1;
+		}
+		int arenaId = arena.add(lowercase);
+		if ( arenaId >= vertices.length ) {
+			int oldLength = vertices.length;
+			vertices = Arrays.copyOf(vertices, Math.max(arenaId + 1, oldLength * 2));
+			Arrays.fill(vertices, oldLength, vertices.length, -1);
+		}
+		vertices[arenaId] = id;
+		return arenaId;
+	}
+
+	/**
+	 * Gets the id of a word of a query, in any case
+	 *
+	 * @param word the word
+	 * @return the id, or -1 if the word is not in the graph
+	 */
+	int indexOf(String word) {
+		int arenaId = arena.indexOf(word);
+		if ( arenaId != -1 && vertices[arenaId] != -1 ) {
+			return vertices[arenaId];
+		}
+		return graph.indexOf(word.toUpperCase());
+	}
+
+	/**
+	 * Gets the lowercase form of a word
+	 *
+	 * @param id the id of the word
+	 * @return the word in lower case
+	 */
+	String lowercase(int id) {
+		int arenaId = arenaIds[id];
+		return arenaId != -1 ? arena.getWord(arenaId) : words[id].toLowerCase();
+	}
+
+	/**
+	 * Appends the lowercase form of a word to a character sink, without creating a String when
+	 * the word is in the arena
+	 *
+	 * @param id the id of the word
+	 * @param out receives the word in lower case
+	 * @throws IOException exception resulting from appending to out
+	 */
+	void appendLowercase(int id, Appendable out) throws IOException {
+		int arenaId = arenaIds[id];
+		if ( arenaId != -1 ) {
+			arena.append(arenaId, out);
+		}
+		else {
+			out.append(words[id].toLowerCase());
+		}
+	}
+}
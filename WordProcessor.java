@@ -1,6 +1,12 @@
 import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -10,6 +16,9 @@ import java.util.stream.Stream;
  */
 public class WordProcessor {
 
+    // number of bytes of the file mapped into memory at a time by readWords
+    private static final long MAPPED_WINDOW_SIZE = 1L << 28;
+
     /**
      * Gets a Stream of words from the filepath.
      *
@@ -28,6 +37,95 @@ public class WordProcessor {
         return stream.filter(line -> !line.isEmpty()).map(String::toUpperCase).map(String::trim);
     }
 
+    /**
+     * Reads the words of a file one at a time, without reading it line by line.
+     *
+     * The file is memory-mapped a window at a time and split into words on whitespace (any character
+     * up to ' ', as trimmed by {@link String#trim()}) directly from the mapped bytes. ASCII letters are
+     * uppercased as they are copied, so the only String made is the word passed to the action.
+     * Words are non-empty and UPPERCASE, the same as the lines of {@link #getWordStream(String)} split on runs
+     * of whitespace, as {@link GraphProcessor.WordLoader#STREAM} splits them: a tab separates two words, and
+     * several spaces in a row separate two words without an empty one between them.
+     *
+     * @param filepath file path to the dictionary file
+     * @param action called with each word, in the order they appear in the file
+     * @throws IOException exception resulting from accessing the filepath
+     */
+    public static void readWords(String filepath, Consumer<String> action) throws IOException {
+        try ( FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ) ) {
+            long size = channel.size();
+            byte[] word = new byte[64];
+            int length = 0;
+            boolean ascii = true;
+
+            // a word that runs past the end of a window carries over in the word buffer
+            for ( long position = 0; position < size; position += MAPPED_WINDOW_SIZE ) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAPPED_WINDOW_SIZE, size - position));
+                while ( buffer.hasRemaining() ) {
+                    byte b = buffer.get();
+                    if ( (b & 0xff) <= ' ' ) {
+                        if ( length > 0 ) {
+                            action.accept(toWord(word, length, ascii));
+                            length = 0;
+                            ascii = true;
+                        }
+                        continue;
+                    }
+
+                    if ( length == word.length ) {
+                        word = Arrays.copyOf(word, length * 2);
+                    }
+                    if ( b >= 'a' && b <= 'z' ) {
+                        b -= 'a' - 'A';
+                    }
+                    ascii &= b >= 0;
+                    word[length++] = b;
+                }
+            }
+            if ( length > 0 ) {
+                action.accept(toWord(word, length, ascii));
+            }
+        }
+    }
+
+    /**
+     * Makes a String of the bytes of a word read by {@link #readWords(String, Consumer)}
+     *
+     * @param word the bytes of the word, with ASCII letters already uppercased
+     * @param length the number of bytes in the word
+     * @param ascii whether all the bytes are ASCII
+     * @return the UPPERCASE word
+     */
+    private static String toWord(byte[] word, int length, boolean ascii) {
+        if ( ascii ) {
+            return new String(word, 0, length, StandardCharsets.US_ASCII);
+        }
+        return new String(word, 0, length, StandardCharsets.UTF_8).toUpperCase();
+    }
+
+    /**
+     * Gets the words from the filepath in a compact {@link WordArena}, instead of as separate Strings.
+     *
+     * The file is split into words the way {@link #readWords(String, Consumer)} and both loaders of
+     * {@link GraphProcessor#populateGraph(String)} split it, into non-empty UPPERCASE words. Repeated words are
+     * stored once, in the order they first appear. The arena only holds ASCII, so a word with any other
+     * character is skipped, as the query index of a processor leaves it out of its arena.
+     *
+     * @param filepath file path to the dictionary file
+     * @return WordArena the ASCII words read from the filepath
+     * @throws IOException exception resulting from accessing the filepath
+     */
+    public static WordArena getWordArena(String filepath) throws IOException {
+        WordArena arena = new WordArena();
+        readWords(filepath, word -> {
+            if ( WordArena.isAscii(word) ) {
+                arena.add(word);
+            }
+        });
+        return arena;
+    }
+
     /**
      * Adjacency between word1 and word2 is defined by: if the difference between word1 and word2 is
      * of 1 char replacement 1 char addition 1 char deletion then word1 and word2 are adjacent else
@@ -45,64 +143,56 @@ public class WordProcessor {
             return false;
         }
 
-        // counts the number of differences between the two strings
         int word1Size = word1.length();
         int word2Size = word2.length();
 
-        int differenceCount = Math.abs(word1Size - word2Size);
-
-        // If words are the same or have a difference greater than one length, they are not adjacent
-        if ( word1.equals(word2) || differenceCount > 1 ) {
-            return false;
-        }
-
-        // if strings have the same length compare character by character, and see how many
-        // replacements there are
-        if ( differenceCount == 0 ) {
+        // if strings have the same length compare character by character, and stop at the second replacement.
+        // Equal words have no replacements, so they are not adjacent
+        if ( word1Size == word2Size ) {
+            int differenceCount = 0;
             for ( int i = 0; i < word1Size; i++ ) {
-                if ( word1.charAt(i) != word2.charAt(i) ) {
-                    differenceCount++;
+                if ( word1.charAt(i) != word2.charAt(i) && ++differenceCount > 1 ) {
+                    return false;
                 }
             }
+            return differenceCount == 1;
         }
-        else if ( word1Size > word2Size ) {
+        else if ( word1Size == word2Size + 1 ) {
             // word 1 is one character longer than word 2
-            differenceCount += getDifferenceCount(word1, word2);
+            return isOneDeletion(word1, word2);
         }
-        else if ( word2Size > word1Size ) {
+        else if ( word2Size == word1Size + 1 ) {
             // word 2 is one character longer than word 1
-            differenceCount += getDifferenceCount(word2, word1);
+            return isOneDeletion(word2, word1);
         }
 
-        return differenceCount == 1;
+        // words have a difference greater than one length
+        return false;
     }
 
     /**
-     * Gets the amount of differences between two words of Strings one character apart in length
-     * longerWord must be
-     * @param longerWord The longer of the two words to compare
+     * Checks whether deleting one character from longerWord gives shorterWord
+     *
+     * @param longerWord The longer of the two words to compare, one character longer than shorterWord
      * @param shorterWord The shorter of the two words to compare
-     * @return the number of differences between the two words
+     * @return true if the words differ by the one character missing from shorterWord
      */
-    private static int getDifferenceCount(String longerWord, String shorterWord) {
-        int differenceCount = 0;
+    private static boolean isOneDeletion(String longerWord, String shorterWord) {
+        int shorterSize = shorterWord.length();
 
-        // get offset for beginning of word
+        // get offset for beginning of word, the first character that differs is the deleted one
         int i = 0;
-        while (i < shorterWord.length() && Character.toString(longerWord.charAt(i))
-                .compareTo(Character.toString(shorterWord.charAt(i))) == 0) {
+        while ( i < shorterSize && longerWord.charAt(i) == shorterWord.charAt(i) ) {
             i++;
         }
 
-        // check for differences
-        for (int j = i; j < shorterWord.length(); j++) {
-            if (Character.toString(longerWord.charAt(j + 1))
-                    .compareTo(Character.toString(shorterWord.charAt(j))) != 0) {
-                differenceCount++;
+        // the rest of the words must match, with longerWord shifted by the deleted character
+        for ( int j = i; j < shorterSize; j++ ) {
+            if ( longerWord.charAt(j + 1) != shorterWord.charAt(j) ) {
+                return false;
             }
         }
-
-        return differenceCount;
+        return true;
     }
 
 }
@@ -0,0 +1,94 @@
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark of the throughput of {@link GraphProcessor#getShortestPaths(java.util.Collection, GraphProcessor.PathConsumer)}
+ * against calling {@link GraphProcessor#getShortestPath(String, String)} once per pair, without precomputed tables.
+ *
+ * Each invocation answers the same batch of random pairs of file.txt words, whose second words are drawn from
+ * {@link #targets} distinct words, so fewer targets means more pairs share a search. Scores are pairs per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchQueryBenchmark {
+
+    // number of pairs in the batch
+    private static final int PAIRS = 10000;
+
+    @Param({"10", "100", "427"})
+    public int targets;
+
+    private GraphProcessor onDemand;
+    private GraphProcessor bidirectional;
+    private GraphProcessor batch;
+    private List<Map.Entry<String, String>> pairs;
+
+    @Setup
+    public void setUp() throws IOException {
+        onDemand = processor(GraphProcessor.QueryMode.ON_DEMAND);
+        bidirectional = processor(GraphProcessor.QueryMode.BIDIRECTIONAL);
+        batch = processor(GraphProcessor.QueryMode.ON_DEMAND);
+
+        List<String> words = new ArrayList<>();
+        onDemand.getGraph().getAllVertices().forEach(words::add);
+        Random random = new Random(42);
+        pairs = new ArrayList<>();
+        for ( int i = 0; i < PAIRS; i++ ) {
+            String word1 = words.get(random.nextInt(words.size()));
+            String word2 = words.get(random.nextInt(Math.min(targets, words.size())));
+            pairs.add(new AbstractMap.SimpleImmutableEntry<>(word1, word2));
+        }
+    }
+
+    private static GraphProcessor processor(GraphProcessor.QueryMode queryMode) throws IOException {
+        GraphProcessor processor = new GraphProcessor();
+        processor.setQueryMode(queryMode);
+        processor.populateGraph("file.txt");
+        return processor;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void singleOnDemand(Blackhole blackhole) {
+        for ( Map.Entry<String, String> pair : pairs ) {
+            blackhole.consume(onDemand.getShortestPath(pair.getKey(), pair.getValue()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void singleBidirectional(Blackhole blackhole) {
+        for ( Map.Entry<String, String> pair : pairs ) {
+            blackhole.consume(bidirectional.getShortestPath(pair.getKey(), pair.getValue()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void batched(Blackhole blackhole) {
+        batch.getShortestPaths(pairs, (word1, word2, path) -> blackhole.consume(path));
+    }
+}
@@ -0,0 +1,94 @@
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of building the word graph of a dictionary, see {@link Dictionaries}: reading the words and
+ * finding every edge with {@link GraphProcessor#populateGraph(String)}, then all the shortest paths with
+ * {@link GraphProcessor#shortestPathPrecomputation()}.
+ *
+ * Each invocation starts from a new processor, so every score is the time of one cold build; the graph of
+ * {@link #precomputation(Populated)} is populated beforehand, outside the measurement. Run with -prof gc for the
+ * allocation rate. {@link GraphProcessor.EdgeBuilder#PAIRWISE} is O(V^2), and the PRECOMPUTED tables are O(V^2)
+ * ints, so large dictionaries are left out of those by default; LANDMARK precomputes O(k * V) and runs on any
+ * size, try -p queryMode=LANDMARK -p precomputedDictionary=100000.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BuildBenchmark {
+
+    /**
+     * Words and edge builder of {@link BuildBenchmark#populateGraph(Words)}
+     */
+    @State(Scope.Benchmark)
+    public static class Words {
+
+        @Param({"file.txt", "10000", "100000"})
+        public String dictionary;
+
+        @Param({"BUCKETED", "PARALLEL"})
+        public GraphProcessor.EdgeBuilder edgeBuilder;
+
+        private String file;
+
+        @Setup
+        public void setUp() throws IOException {
+            file = Dictionaries.file(dictionary);
+        }
+    }
+
+    /**
+     * Processor with a populated graph, new for each invocation of {@link BuildBenchmark#precomputation(Populated)}
+     */
+    @State(Scope.Benchmark)
+    public static class Populated {
+
+        @Param({"file.txt", "2000", "5000"})
+        public String precomputedDictionary;
+
+        @Param({"PRECOMPUTED", "COMPACT", "LANDMARK"})
+        public GraphProcessor.QueryMode queryMode;
+
+        @Param({"false", "true"})
+        public boolean parallel;
+
+        private GraphProcessor processor;
+
+        @Setup(Level.Invocation)
+        public void setUp() throws IOException {
+            processor = new GraphProcessor();
+            processor.setQueryMode(queryMode);
+            processor.setParallelPrecomputation(parallel);
+            processor.populateGraph(Dictionaries.file(precomputedDictionary));
+        }
+    }
+
+    @Benchmark
+    public GraphProcessor populateGraph(Words words) throws IOException {
+        GraphProcessor processor = new GraphProcessor();
+        processor.setEdgeBuilder(words.edgeBuilder);
+        processor.populateGraph(words.file);
+        return processor;
+    }
+
+    @Benchmark
+    public GraphProcessor precomputation(Populated populated) {
+        populated.processor.shortestPathPrecomputation();
+        return populated.processor;
+    }
+}
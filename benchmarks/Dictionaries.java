@@ -0,0 +1,108 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Dictionaries the benchmarks run on, named by their dictionary parameter.
+ *
+ * A file name such as "file.txt" is used as is. A number is a synthetic dictionary of that many distinct
+ * words, grown from the words of file.txt by random one letter substitutions, additions and deletions, so
+ * that like a real dictionary every word is a ladder step away from some other word. The same number always
+ * gives the same words. Each synthetic dictionary is written once per JVM to a temporary file, since
+ * {@link GraphProcessor#populateGraph(String)} reads a file.
+ */
+final class Dictionaries {
+
+    // words are grown from this dictionary
+    private static final String SEED = "file.txt";
+    // shortest and longest synthetic words
+    private static final int MIN_LENGTH = 2;
+    private static final int MAX_LENGTH = 10;
+
+    // dictionary parameter -> file of its words
+    private static final Map<String, String> files = new HashMap<>();
+
+    private Dictionaries() {
+    }
+
+    /**
+     * Gets the file of a dictionary, writing it first if it is synthetic
+     *
+     * @param dictionary a file name, or a number of words
+     * @return the path of the file
+     * @throws IOException if the seed can not be read or the file can not be written
+     */
+    static synchronized String file(String dictionary) throws IOException {
+        if ( !dictionary.chars().allMatch(Character::isDigit) ) {
+            return dictionary;
+        }
+        String file = files.get(dictionary);
+        if ( file == null ) {
+            Path path = Files.createTempFile("dictionary-" + dictionary + "-", ".txt");
+            path.toFile().deleteOnExit();
+            Files.write(path, synthetic(Integer.parseInt(dictionary)), StandardCharsets.UTF_8);
+            file = path.toString();
+            files.put(dictionary, file);
+        }
+        return file;
+    }
+
+    /**
+     * Gets the words of a dictionary, in upper case like the vertices of a graph
+     *
+     * @param dictionary a file name, or a number of words
+     * @return the words, in file order
+     * @throws IOException if the dictionary can not be read
+     */
+    static List<String> words(String dictionary) throws IOException {
+        return WordProcessor.getWordStream(file(dictionary)).collect(Collectors.toList());
+    }
+
+    /**
+     * Makes a synthetic dictionary
+     *
+     * @param size the number of distinct words
+     * @return the words, the seed words first
+     * @throws IOException if the seed can not be read
+     */
+    static List<String> synthetic(int size) throws IOException {
+        LinkedHashSet<String> words = new LinkedHashSet<>();
+        for ( String word : WordProcessor.getWordStream(SEED).collect(Collectors.toList()) ) {
+            if ( words.size() < size ) {
+                words.add(word);
+            }
+        }
+
+        List<String> grown = new ArrayList<>(words);
+        Random random = new Random(size);
+        StringBuilder word = new StringBuilder(MAX_LENGTH + 1);
+        while ( grown.size() < size ) {
+            word.setLength(0);
+            word.append(grown.get(random.nextInt(grown.size())));
+            char letter = (char) ('A' + random.nextInt(26));
+            int edit = random.nextInt(4);
+            if ( edit == 0 && word.length() < MAX_LENGTH ) {
+                word.insert(random.nextInt(word.length() + 1), letter);
+            }
+            else if ( edit == 1 && word.length() > MIN_LENGTH ) {
+                word.deleteCharAt(random.nextInt(word.length()));
+            }
+            else {
+                word.setCharAt(random.nextInt(word.length()), letter);
+            }
+            String next = word.toString();
+            if ( words.add(next) ) {
+                grown.add(next);
+            }
+        }
+        return grown;
+    }
+}
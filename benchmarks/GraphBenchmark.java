@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark of the lookups and mutations of {@link Graph} on the word graph of a dictionary,
+ * see {@link Dictionaries}, in each way of storing edges.
+ *
+ * Lookups and mutations take random vertices of the graph. Mutations leave the graph as they found it:
+ * an edge is added between two words and removed again, a new word is added with edges to the neighbors
+ * of an existing word and removed again. Scores are operations per second and, in sample mode, latency
+ * percentiles. Run with -prof gc for the allocation rate. The matrix stores need V^2 memory, so the
+ * 100000 word dictionary is only run with SPARSE; try -p storage=MATRIX,BITSET -p dictionary=file.txt,10000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmark {
+
+    // number of random vertices cycled through
+    private static final int SAMPLES = 1024;
+
+    @Param({"file.txt", "10000", "100000"})
+    public String dictionary;
+
+    @Param({"SPARSE"})
+    public Graph.Storage storage;
+
+    private Graph<String> graph;
+    private String[] words;
+    private int[] ids;
+    private int[] neighbors;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        // a dynamic processor's graph has stable ids, so removing a word never renumbers the others
+        GraphProcessor processor = new GraphProcessor(storage, true);
+        processor.populateGraph(Dictionaries.file(dictionary));
+        graph = processor.getGraph();
+
+        int vertexCount = graph.getVertexCount();
+        Random random = new Random(42);
+        words = new String[SAMPLES];
+        ids = new int[SAMPLES];
+        for ( int i = 0; i < SAMPLES; i++ ) {
+            ids[i] = random.nextInt(vertexCount);
+            words[i] = graph.getVertex(ids[i]);
+        }
+        neighbors = new int[vertexCount];
+    }
+
+    @Benchmark
+    public int indexOf() {
+        return graph.indexOf(words[nextSample()]);
+    }
+
+    @Benchmark
+    public boolean isAdjacent() {
+        int i = nextSample();
+        return graph.isAdjacent(words[i], words[(i + 1) % SAMPLES]);
+    }
+
+    @Benchmark
+    public void getNeighbors(Blackhole blackhole) {
+        for ( String neighbor : graph.getNeighbors(words[nextSample()]) ) {
+            blackhole.consume(neighbor);
+        }
+    }
+
+    @Benchmark
+    public int getNeighborIds() {
+        return graph.getNeighborIds(ids[nextSample()], neighbors);
+    }
+
+    @Benchmark
+    public boolean addAndRemoveEdge() {
+        int i = nextSample();
+        String word1 = words[i];
+        String word2 = words[(i + 1) % SAMPLES];
+        if ( word1.equals(word2) || !graph.addEdge(word1, word2) ) {
+            return false;
+        }
+        return graph.removeEdge(word1, word2);
+    }
+
+    @Benchmark
+    public String addAndRemoveVertex() {
+        // the id of the removed word is reused by the next one
+        String word = words[nextSample()];
+        String added = graph.addVertex(word + "#");
+        int degree = graph.getNeighborIds(graph.indexOf(word), neighbors);
+        for ( int i = 0; i < degree; i++ ) {
+            graph.addEdge(added, graph.getVertex(neighbors[i]));
+        }
+        return graph.removeVertex(added);
+    }
+
+    private int nextSample() {
+        int i = next;
+        next = (next + 1) % SAMPLES;
+        return i;
+    }
+}
@@ -0,0 +1,94 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of point queries between two random words of a dictionary, see {@link Dictionaries},
+ * in each query mode.
+ *
+ * Pairs are drawn from all the words, connected or not, and cycled through. The path is asked for as a list
+ * of words and as ids written into a reused array, and the distance on its own. Scores are queries per second
+ * and, in sample mode, latency percentiles. Run with -prof gc for the allocation rate. The modes that precompute
+ * O(V^2) distances are left out of large dictionaries by default; the searching modes run on any size, try
+ * -p queryMode=ON_DEMAND,BIDIRECTIONAL,LANDMARK,ASTAR -p dictionary=100000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+
+    // number of query pairs cycled through
+    private static final int PAIRS = 1024;
+
+    @Param({"file.txt", "5000"})
+    public String dictionary;
+
+    @Param({"PRECOMPUTED", "COMPACT", "ON_DEMAND", "BIDIRECTIONAL", "LANDMARK", "ASTAR"})
+    public GraphProcessor.QueryMode queryMode;
+
+    private GraphProcessor processor;
+    private String[] words1;
+    private String[] words2;
+    private int[] ids;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        processor = new GraphProcessor();
+        processor.setQueryMode(queryMode);
+        processor.setParallelPrecomputation(true);
+        processor.populateGraph(Dictionaries.file(dictionary));
+        processor.shortestPathPrecomputation();
+
+        // words as a user types them, in lower case
+        List<String> words = Dictionaries.words(dictionary);
+        Random random = new Random(42);
+        words1 = new String[PAIRS];
+        words2 = new String[PAIRS];
+        for ( int i = 0; i < PAIRS; i++ ) {
+            words1[i] = words.get(random.nextInt(words.size())).toLowerCase();
+            words2[i] = words.get(random.nextInt(words.size())).toLowerCase();
+        }
+        ids = new int[words.size()];
+    }
+
+    @Benchmark
+    public List<String> shortestPath() {
+        int i = nextPair();
+        return processor.getShortestPath(words1[i], words2[i]);
+    }
+
+    @Benchmark
+    public int shortestPathIds() {
+        int i = nextPair();
+        return processor.getShortestPath(words1[i], words2[i], ids);
+    }
+
+    @Benchmark
+    public Integer shortestDistance() {
+        int i = nextPair();
+        return processor.getShortestDistance(words1[i], words2[i]);
+    }
+
+    private int nextPair() {
+        int i = next;
+        next = (next + 1) % PAIRS;
+        return i;
+    }
+}
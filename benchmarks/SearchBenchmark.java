@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of one point to point query with the A* search guided by {@link EditDistanceHeuristic},
+ * against the breadth first searches.
+ *
+ * Each invocation answers a query between two random connected words of file.txt. Besides the latency,
+ * the {@link Expanded} counters report the vertices each search expanded per query: all the vertices
+ * reached for {@link BreadthFirstSearch}, which has no early exit, and the vertices visited from both
+ * ends for {@link BidirectionalSearch}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    // number of query pairs cycled through
+    private static final int PAIRS = 1024;
+
+    private Graph<String> graph;
+    private AStarSearch aStar;
+    private BreadthFirstSearch breadthFirst;
+    private BidirectionalSearch bidirectional;
+    private int[] dist;
+    private int[] pred;
+    private int[] sources;
+    private int[] targets;
+    private int next;
+
+    /**
+     * Vertices expanded per query, reported next to the latency
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Expanded {
+
+        public long expanded;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            expanded = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        GraphProcessor processor = new GraphProcessor();
+        processor.populateGraph("file.txt");
+        graph = processor.getGraph();
+        aStar = new AStarSearch(graph, new EditDistanceHeuristic(graph));
+        breadthFirst = new BreadthFirstSearch(graph);
+        bidirectional = new BidirectionalSearch(graph);
+        int vertexCount = graph.getVertexCount();
+        dist = new int[vertexCount];
+        pred = new int[vertexCount];
+
+        // only pairs with a path, so every search stops at the target
+        Random random = new Random(42);
+        sources = new int[PAIRS];
+        targets = new int[PAIRS];
+        for ( int i = 0; i < PAIRS; ) {
+            int source = random.nextInt(vertexCount);
+            int target = random.nextInt(vertexCount);
+            if ( source != target && bidirectional.search(source, target) > 0 ) {
+                sources[i] = source;
+                targets[i] = target;
+                i++;
+            }
+        }
+    }
+
+    @Benchmark
+    public int aStar(Expanded counters) {
+        int i = nextPair();
+        int distance = aStar.search(sources[i], targets[i]);
+        counters.expanded += aStar.getExpandedCount();
+        return distance;
+    }
+
+    @Benchmark
+    public int breadthFirst(Expanded counters) {
+        int i = nextPair();
+        Arrays.fill(dist, -1);
+        counters.expanded += breadthFirst.run(sources[i], dist, pred);
+        return dist[targets[i]];
+    }
+
+    @Benchmark
+    public int bidirectional(Expanded counters) {
+        int i = nextPair();
+        int distance = bidirectional.search(sources[i], targets[i]);
+        counters.expanded += bidirectional.getVisitedCount();
+        return distance;
+    }
+
+    private int nextPair() {
+        int i = next;
+        next = (next + 1) % PAIRS;
+        return i;
+    }
+}
@@ -0,0 +1,108 @@
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark of {@link WordProcessor#isAdjacent(String, String)} against the implementation it replaced.
+ *
+ * Each invocation compares one word of a dictionary, see {@link Dictionaries}, with every word of it, the same
+ * pairs the pairwise edge builder compares. Run with -prof gc to see the allocation rate of each version.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WordProcessorBenchmark {
+
+    @Param({"file.txt", "10000", "100000"})
+    public String dictionary;
+
+    private String[] words;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        words = Dictionaries.words(dictionary).toArray(new String[0]);
+    }
+
+    @Benchmark
+    public void isAdjacent(Blackhole blackhole) {
+        String word1 = nextWord();
+        for ( String word2 : words ) {
+            blackhole.consume(WordProcessor.isAdjacent(word1, word2));
+        }
+    }
+
+    @Benchmark
+    public void isAdjacentBefore(Blackhole blackhole) {
+        String word1 = nextWord();
+        for ( String word2 : words ) {
+            blackhole.consume(isAdjacentBefore(word1, word2));
+        }
+    }
+
+    private String nextWord() {
+        String word = words[next];
+        next = (next + 1) % words.length;
+        return word;
+    }
+
+    /**
+     * The implementation of {@link WordProcessor#isAdjacent(String, String)} before it was made allocation-free
+     */
+    static boolean isAdjacentBefore(String word1, String word2) {
+        if ( word1 == null || word2 == null ) {
+            return false;
+        }
+        int word1Size = word1.length();
+        int word2Size = word2.length();
+        int differenceCount = Math.abs(word1Size - word2Size);
+        if ( word1.equals(word2) || differenceCount > 1 ) {
+            return false;
+        }
+        if ( differenceCount == 0 ) {
+            for ( int i = 0; i < word1Size; i++ ) {
+                if ( word1.charAt(i) != word2.charAt(i) ) {
+                    differenceCount++;
+                }
+            }
+        }
+        else if ( word1Size > word2Size ) {
+            differenceCount += getDifferenceCountBefore(word1, word2);
+        }
+        else if ( word2Size > word1Size ) {
+            differenceCount += getDifferenceCountBefore(word2, word1);
+        }
+        return differenceCount == 1;
+    }
+
+    private static int getDifferenceCountBefore(String longerWord, String shorterWord) {
+        int differenceCount = 0;
+        int i = 0;
+        while (i < shorterWord.length() && Character.toString(longerWord.charAt(i))
+                .compareTo(Character.toString(shorterWord.charAt(i))) == 0) {
+            i++;
+        }
+        for (int j = i; j < shorterWord.length(); j++) {
+            if (Character.toString(longerWord.charAt(j + 1))
+                    .compareTo(Character.toString(shorterWord.charAt(j))) != 0) {
+                differenceCount++;
+            }
+        }
+        return differenceCount;
+    }
+}